@@ -3,12 +3,17 @@ package dev.adventofcode2016;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import dev.adventofcode2016.algorithms.AStar;
+import dev.adventofcode2016.algorithms.IntAStar;
+import dev.adventofcode2016.algorithms.SearchListener;
 import dev.adventofcode2016.util.ImmutableListCollector;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -81,6 +86,47 @@ public class Problem11 implements AStar<Problem11.Building> {
       return new Building(this.elevatorFloor + floors, movedMaterials);
     }
 
+    /**
+     * Encodes this building as an int for EncodedSearch.  Generators and microchips of the same type are
+     * interchangeable with other pairs, so the building is encoded as the elevator floor followed by the
+     * sorted (generator floor, microchip floor) pairs.  Floors are stored in 2 bits as floor - 1:
+     *
+     * bits 0-1: elevator floor
+     * bits 2+4i - 5+4i: pair i, with the microchip floor in the low 2 bits and generator floor in the high 2 bits.
+     *
+     * @return Encoded building
+     * @throws IllegalArgumentException if the building has more than 7 pairs, or unpaired moveables
+     */
+    public int encode() {
+      Map<Character, int[]> pairs = new HashMap<>(); // Map of symbol to the pair's [generator, microchip] floor.
+      for (Moveable moveable : moveables) {
+        int[] pair = pairs.computeIfAbsent(moveable.symbol, symbol -> new int[]{0, 0});
+        pair[moveable.type == GENERATOR ? 0 : 1] = moveable.floor;
+      }
+
+      if (pairs.size() > EncodedSearch.MAX_PAIRS || pairs.size() * 2 != moveables.length) {
+        throw new IllegalArgumentException("Can't encode a building with moveables " + Arrays.toString(moveables));
+      }
+
+      int[] nibbles = new int[pairs.size()];
+      int index = 0;
+      for (int[] pair : pairs.values()) {
+        if (pair[0] == 0 || pair[1] == 0) {
+          throw new IllegalArgumentException("Can't encode a building with an unpaired moveable: " + this);
+        }
+
+        nibbles[index++] = (pair[0] - 1) << 2 | (pair[1] - 1);
+      }
+      Arrays.sort(nibbles);
+
+      int encoded = elevatorFloor - 1;
+      for (int i = 0; i < nibbles.length; i ++) {
+        encoded |= nibbles[i] << (2 + 4 * i);
+      }
+
+      return encoded;
+    }
+
     public ImmutableList<String> render() {
       ImmutableList.Builder<String> list = ImmutableList.builder();
 
@@ -238,6 +284,190 @@ public class Problem11 implements AStar<Problem11.Building> {
         .collect(new ImmutableListCollector<>());
   }
 
+  /**
+   * IntAStar over encoded buildings (see Building.encode()).  Buildings are searched without allocating
+   * objects for each state.  An encoded building doesn't know how many pairs it has, so the search does.
+   */
+  public static class EncodedSearch implements IntAStar {
+    private static final int MAX_PAIRS = 7; // 2 bits for the elevator + 4 bits per pair fit in an int.
+
+    private final int pairs;
+
+    public EncodedSearch(int pairs) {
+      if (pairs < 1 || pairs > MAX_PAIRS) {
+        throw new IllegalArgumentException("Can't search buildings with " + pairs + " pairs.");
+      }
+
+      this.pairs = pairs;
+    }
+
+    /**
+     * Calculates a lower bound on the number of steps between two encoded buildings.  Each step moves
+     * one or two items by one floor, so half of the number of floors that items have to move
+     * (ignoring which item ends up where) is never more than the real number of steps.
+     *
+     * @param from Encoded starting building
+     * @param to   Encoded ending building
+     * @return Heuristic number of steps between the buildings
+     */
+    @Override
+    public int heuristicCost(int from, int to) {
+      int floorsToMove = 0;
+
+      // Total distance items move is the number of items that cross each floor boundary.
+      for (int floor = 0; floor < 3; floor ++) {
+        floorsToMove += Math.abs(itemsAtOrBelow(from, floor) - itemsAtOrBelow(to, floor));
+      }
+
+      return (floorsToMove + 1) / 2;
+    }
+
+    /**
+     * Passes the valid buildings that the elevator can reach by moving one or two items up or down a floor.
+     *
+     * @param building  Encoded building
+     * @param neighbors Consumer that accepts valid encoded neighbors of the building
+     */
+    @Override
+    public void neighbors(int building, IntConsumer neighbors) {
+      int elevator = building & 3;
+      int items = pairs * 2;
+
+      for (int first = 0; first < items; first ++) {
+        if (itemFloor(building, first) != elevator) {
+          continue;
+        }
+
+        // second == first moves a single item.
+        for (int second = first; second < items; second ++) {
+          if (itemFloor(building, second) != elevator) {
+            continue;
+          }
+
+          // Floor fields are independent 2 bit fields, so moving the elevator and items is addition.
+          int move = 1 | 1 << itemOffset(first);
+          if (second != first) {
+            move |= 1 << itemOffset(second);
+          }
+
+          if (elevator < 3) {
+            emitIfValid(building + move, neighbors);
+          }
+
+          if (elevator > 0) {
+            emitIfValid(building - move, neighbors);
+          }
+        }
+      }
+    }
+
+    private void emitIfValid(int building, IntConsumer neighbors) {
+      if (isValid(building)) {
+        neighbors.accept(canonical(building));
+      }
+    }
+
+    /**
+     * Returns whether the building is valid - microchips can't be on a floor with another type's
+     * generator unless their own generator is there to shield them.
+     *
+     * @param building Encoded building
+     * @return Whether the building is valid
+     */
+    private boolean isValid(int building) {
+      int generatorFloors = 0;
+      for (int pair = 0; pair < pairs; pair ++) {
+        generatorFloors |= 1 << itemFloor(building, pair * 2 + 1);
+      }
+
+      for (int pair = 0; pair < pairs; pair ++) {
+        int microchipFloor = itemFloor(building, pair * 2);
+
+        if (microchipFloor != itemFloor(building, pair * 2 + 1) && (generatorFloors & 1 << microchipFloor) != 0) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    /**
+     * Sorts the pairs in the encoded building, so equivalent buildings have the same encoding.
+     *
+     * @param building Encoded building
+     * @return Canonical encoding of the building
+     */
+    private int canonical(int building) {
+      // Insertion sort on the 4 bit pairs.
+      for (int i = 1; i < pairs; i ++) {
+        for (int j = i; j > 0 && pair(building, j - 1) > pair(building, j); j --) {
+          int low = pair(building, j - 1);
+          int high = pair(building, j);
+
+          building &= ~(0xFF << pairOffset(j - 1));
+          building |= (high | low << 4) << pairOffset(j - 1);
+        }
+      }
+
+      return building;
+    }
+
+    private int itemsAtOrBelow(int building, int floor) {
+      int count = 0;
+      for (int item = 0; item < pairs * 2; item ++) {
+        if (itemFloor(building, item) <= floor) {
+          count ++;
+        }
+      }
+
+      return count;
+    }
+
+    // Items alternate between microchips (even) and generators (odd), so item i's floor is at bit 2 + 2i.
+    private static int itemOffset(int item) {
+      return 2 + 2 * item;
+    }
+
+    private static int itemFloor(int building, int item) {
+      return (building >>> itemOffset(item)) & 3;
+    }
+
+    private static int pairOffset(int pair) {
+      return 2 + 4 * pair;
+    }
+
+    private static int pair(int building, int pair) {
+      return (building >>> pairOffset(pair)) & 0xF;
+    }
+  }
+
+  /**
+   * Calculates the fewest number of steps required to move the start building to the end building.
+   * Buildings are encoded as ints and searched using EncodedSearch, which doesn't allocate objects
+   * for each state.
+   *
+   * @param start Starting building
+   * @param end   Ending building
+   * @return Fewest number of steps between the two buildings
+   */
+  public int fewestSteps(Building start, Building end) {
+    return fewestSteps(start, end, SearchListener.NONE);
+  }
+
+  /**
+   * Calculates the fewest number of steps required to move the start building to the end building,
+   * reporting the search's progress to the listener.
+   *
+   * @param start    Starting building
+   * @param end      Ending building
+   * @param listener Listener to report search events to
+   * @return Fewest number of steps between the two buildings
+   */
+  public int fewestSteps(Building start, Building end, SearchListener listener) {
+    EncodedSearch search = new EncodedSearch(start.moveables.length / 2);
+    return search.shortestPath(start.encode(), end.encode(), listener).length - 1;
+  }
+
   public static void main(String[] args) {
     // P: promethium
     // B: cobolt
@@ -285,7 +515,7 @@ public class Problem11 implements AStar<Problem11.Building> {
         // The fourth floor contains nothing relevant.
     );
 
-    int part1Steps = new Problem11().shortestPath(part1, endPart1).size() - 1;
+    int part1Steps = new Problem11().fewestSteps(part1, endPart1);
     System.out.println("Part 1: " + part1Steps + " steps");
 
     // E: elerium
@@ -341,7 +571,7 @@ public class Problem11 implements AStar<Problem11.Building> {
         // The fourth floor contains nothing relevant.
     );
 
-    int part2Steps = new Problem11().shortestPath(part2, endPart2).size() - 1;
+    int part2Steps = new Problem11().fewestSteps(part2, endPart2);
     System.out.println("Part 2: " + part2Steps + " steps");
   }
 }
@@ -1,12 +1,23 @@
 package dev.adventofcode2016;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import dev.adventofcode2016.algorithms.AStar;
-import dev.adventofcode2016.util.ImmutableListCollector;
+import dev.adventofcode2016.algorithms.IntAStar;
+import dev.adventofcode2016.algorithms.IntIntMap;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class Problem13 {
 
@@ -42,11 +53,139 @@ public class Problem13 {
     }
   }
 
-  public static class Maze implements AStar<Point> {
+  /**
+   * Number of steps from the nearest of a set of sources to each point in a rectangular region of a maze.
+   */
+  public static final class DistanceField {
+    private static final int UNREACHABLE = -1;
+
+    public final Point min;
+    public final Point max;
+
+    private final int width;
+    private final int[] distances; // Row major, UNREACHABLE for points that can't be reached.
+
+    private DistanceField(Point min, Point max, int[] distances) {
+      this.min = min;
+      this.max = max;
+      this.width = max.x - min.x + 1;
+      this.distances = distances;
+    }
+
+    /**
+     * Returns the number of steps from the nearest source to the given point.
+     *
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @return Number of steps, or -1 if the point is outside the region or can't be reached
+     */
+    public int distance(int x, int y) {
+      if (x < min.x || x > max.x || y < min.y || y > max.y) {
+        return UNREACHABLE;
+      }
+
+      return distances[(y - min.y) * width + (x - min.x)];
+    }
+
+    /**
+     * Returns the number of steps from the nearest source to the given point.
+     *
+     * @param point Point to look up
+     * @return Number of steps, or -1 if the point is outside the region or can't be reached
+     */
+    public int distance(Point point) {
+      return distance(point.x, point.y);
+    }
+  }
+
+  /** Characters drawn over a rendered maze, like a path or the distances of a distance field. */
+  @FunctionalInterface
+  public interface Overlay {
+    /** Overlay that draws nothing, leaving just the maze. */
+    Overlay NONE = (x, y) -> 0;
+
+    /**
+     * Returns the character to draw at the given point.
+     *
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @return ASCII character to draw instead of the maze, or 0 to draw the maze
+     */
+    char at(int x, int y);
+
+    /**
+     * Returns an overlay that draws the points of a path as 'O'.
+     *
+     * @param path Points to draw
+     * @return Path overlay
+     */
+    static Overlay path(Collection<Point> path) {
+      IntIntMap points = new IntIntMap(path.size());
+      for (Point point : path) {
+        points.put(Maze.encode(point), 0);
+      }
+
+      return (x, y) -> x <= Maze.MAX_COORDINATE && y <= Maze.MAX_COORDINATE && points.containsKey(Maze.encode(x, y)) ? 'O' : 0;
+    }
+
+    /**
+     * Returns an overlay that draws each reachable point of a distance field as the last digit of its distance.
+     *
+     * @param field Distances to draw
+     * @return Distance overlay
+     */
+    static Overlay distances(DistanceField field) {
+      return (x, y) -> {
+        int distance = field.distance(x, y);
+        return distance < 0 ? 0 : (char) ('0' + distance % 10);
+      };
+    }
+  }
+
+  public static class Maze implements AStar<Point>, IntAStar {
+    // Points are encoded as ints for IntAStar, with x in the low 16 bits and y in the high 16 bits.
+    private static final int MAX_COORDINATE = 0xFFFF;
+
+    // Cached cells and visited points are bits in square tiles, one long per row, allocated as they're needed.
+    private static final int TILE_BITS = 6;
+    private static final int TILE_SIZE = 1 << TILE_BITS; // Cells on each side of a tile.
+    private static final int TILES = (MAX_COORDINATE + 1) >> TILE_BITS; // Tiles on each side of the maze.
+
+    private static final int RENDER_BUFFER_BYTES = 64 * 1024;
+
     private final int input;
+    private final OpenCells openCells;
 
     public Maze(int input) {
       this.input = input;
+      this.openCells = new OpenCells(input);
+    }
+
+    /**
+     * Encodes the point as an int for IntAStar.
+     *
+     * @param point Point to encode
+     * @return Encoded point
+     * @throws IllegalArgumentException if the point is outside of the encodable part of the maze
+     */
+    public static int encode(Point point) {
+      if (point.x < 0 || point.x > MAX_COORDINATE || point.y < 0 || point.y > MAX_COORDINATE) {
+        throw new IllegalArgumentException(point + " can't be encoded.");
+      }
+
+      return encode(point.x, point.y);
+    }
+
+    private static int encode(int x, int y) {
+      return y << 16 | x;
+    }
+
+    private static int decodeX(int point) {
+      return point & 0xFFFF;
+    }
+
+    private static int decodeY(int point) {
+      return point >>> 16;
     }
 
     /**
@@ -58,81 +197,131 @@ public class Problem13 {
      * If the number of bits that are 1 is even, it's an open space.
      * If the number of bits that are 1 is odd, it's a wall.
      *
+     * Cells in the encodable part of the maze are cached in tiles, so repeated lookups are a single bit test.
+     *
      * @param point Point to check
      * @return Whether the point is open or a wall.
      */
     public boolean isOpen(Point point) {
-      if (point.x < 0 || point.y < 0) {
+      return isOpen(point.x, point.y);
+    }
+
+    /**
+     * Returns true if the given coordinates are open space, false if they're a wall.
+     *
+     * @param x X coordinate to check
+     * @param y Y coordinate to check
+     * @return Whether the coordinates are open or a wall.
+     * @see #isOpen(Point)
+     */
+    public boolean isOpen(int x, int y) {
+      if (x < 0 || y < 0) {
         return false;
       }
 
-      int value = point.x * point.x
-          + 3 * point.x
-          + 2 * point.x * point.y
-          + point.y
-          + point.y * point.y
-          + input;
+      if (x > MAX_COORDINATE || y > MAX_COORDINATE) {
+        return computeOpen(input, x, y); // Too far out to cache.
+      }
+
+      return openCells.isOpen(x, y);
+    }
 
-      // Hacker's Delight, Second Edition - Section 5-1 Counting 1-Bits (Page 81)
-      // Counts the number of 1 bits in the string by divide-and-conquer
-      value = (value & 0x55555555) + ((value >> 1) & 0x55555555);
-      value = (value & 0x33333333) + ((value >> 2) & 0x33333333);
-      value = (value & 0x0F0F0F0F) + ((value >> 4) & 0x0F0F0F0F);
-      value = (value & 0x00FF00FF) + ((value >> 8) & 0x00FF00FF);
-      value = (value & 0x0000FFFF) + ((value >> 16) & 0x0000FFFF);
+    /**
+     * Calculates whether the given non-negative coordinates are open space from the office designer's
+     * favorite number, without the cache.
+     *
+     * @see #isOpen(Point)
+     */
+    private static boolean computeOpen(int input, int x, int y) {
+      int value = x * x
+          + 3 * x
+          + 2 * x * y
+          + y
+          + y * y
+          + input;
 
-      return value % 2 == 0;
+      return Integer.bitCount(value) % 2 == 0;
     }
 
     /**
-     * Calculates number of steps in the shortest path between the start and end points in this maze using A*.
+     * Calculates number of steps in the shortest path between the start and end points in this maze using
+     * bidirectional A*.  Maze steps can always be reversed, so the search also expands backward from the end.
      *
      * @param start Starting point
      * @param end Ending point
      * @return Number of steps in the shortest path
      */
     public int fewestSteps(Point start, Point end) {
-      return shortestPath(start, end).size() - 1; // Maze doesn't count the first step as a move.
+      return bidirectionalShortestPath(encode(start), encode(end)).length - 1; // Maze doesn't count the first step as a move.
     }
 
     /**
-     * Returns the number of steps (including the starting point) reachable in the given number of steps.
+     * Calculates the number of steps in the shortest path from the start to each of the ends, exploring
+     * the maze from the start once instead of once per end.
+     *
+     * @param start Starting point
+     * @param ends Ending points
+     * @return Map of each reachable end to the number of steps in the shortest path to it
+     */
+    public ImmutableMap<Point, Integer> fewestSteps(Point start, Collection<Point> ends) {
+      return distancesFrom(start, ends);
+    }
+
+    /**
+     * Returns the number of points (including the starting point) reachable in the given number of steps.
      *
      * @param start Starting position
      * @param maxSteps Number of steps to take
      * @return Number of points reachable in the given number of steps
+     * @throws IllegalArgumentException if the start is outside of the encodable part of the maze, where both
+     *                                  coordinates are from 0 to 65535, or maxSteps is negative
      */
     public int reachable(Point start, int maxSteps) {
-      Map<Point, Integer> steps = new HashMap<>(); // Map of point to the number of steps required to reach the point.
-      Set<Point> open = new HashSet<>(); // Points left to visit
-
-      open.add(start);
-      steps.put(start, 0);
-
-      while (!open.isEmpty()) {
-        Point current = open.stream()
-            .sorted(Comparator.comparing(steps::get)) // Compare the score for each point
-            .findFirst()
-            .orElseThrow(() -> new IllegalStateException("Open set is empty."));
-
-        open.remove(current);
+      BreadthFirstSearch search = new BreadthFirstSearch(encode(start), maxSteps);
+      search.run();
+      return search.reachable;
+    }
 
-        for (Point neighbor : neighbors(current)) {
-          if (open.contains(neighbor)) {
-            continue; // Already visited.
-          }
+    /**
+     * Counts the points reachable from the start in at most the given number of steps by their distance from
+     * the start.  Element d of the result is the number of points whose shortest path from the start is d
+     * steps, so the elements add up to reachable(start, maxSteps).  The result ends at the farthest distance
+     * that has any points, so it's short when the start is enclosed, however large maxSteps is.
+     *
+     * @param start Starting position
+     * @param maxSteps Number of steps to take
+     * @return Counts of the points at each distance, with at most maxSteps + 1 elements
+     * @throws IllegalArgumentException if the start is outside of the encodable part of the maze, where both
+     *                                  coordinates are from 0 to 65535, or maxSteps is negative
+     */
+    public int[] reachableByDistance(Point start, int maxSteps) {
+      BreadthFirstSearch search = new BreadthFirstSearch(encode(start), maxSteps);
+      search.run();
+      return Arrays.copyOf(search.histogram, search.levels);
+    }
 
-          int neighborSteps = steps.get(current) + 1;
-          if (neighborSteps > maxSteps) {
-            continue; // Too far.
-          }
+    /**
+     * Calculates the number of steps from the nearest source to every point in a region of the maze, with
+     * a breadth first search from all of the sources at once.  Paths have to stay inside the region.  Each
+     * level of the search is split between the threads of the common fork-join pool once it's wide enough.
+     *
+     * @param sources Starting points, which are all 0 steps away
+     * @param min     Upper left corner of the region, inclusive
+     * @param max     Lower right corner of the region, inclusive
+     * @return Distance field of the region
+     * @throws IllegalArgumentException if the region isn't encodable, or a source is outside of it
+     */
+    public DistanceField distanceField(Collection<Point> sources, Point min, Point max) {
+      if (min.x < 0 || min.y < 0 || max.x > MAX_COORDINATE || max.y > MAX_COORDINATE || min.x > max.x || min.y > max.y) {
+        throw new IllegalArgumentException("Invalid region from " + min + " to " + max);
+      }
 
-          open.add(neighbor);
-          steps.put(neighbor, neighborSteps);
-        }
+      long cells = (long) (max.x - min.x + 1) * (max.y - min.y + 1);
+      if (cells > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("Region from " + min + " to " + max + " is too large");
       }
 
-      return steps.keySet().size();
+      return ForkJoinPool.commonPool().invoke(new ParallelBreadthFirstSearch(sources, min, max, (int) cells));
     }
 
     /**
@@ -142,14 +331,75 @@ public class Problem13 {
      * @return Open (non-wall) neighbors of the given point in this maze.
      */
     public ImmutableList<Point> neighbors(Point point) {
-      return Stream.of(
-          new Point(point.x - 1, point.y),
-          new Point(point.x + 1, point.y),
-          new Point(point.x, point.y - 1),
-          new Point(point.x, point.y + 1)
-      )
-          .filter(this::isOpen)
-          .collect(new ImmutableListCollector<>());
+      ImmutableList.Builder<Point> neighbors = ImmutableList.builder();
+      neighbors(point, neighbors::add);
+      return neighbors.build();
+    }
+
+    /**
+     * Passes the open neighbors of the given point to the neighbors consumer.
+     *
+     * @param point     Point to find neighbors for
+     * @param neighbors Consumer that accepts the open (non-wall) neighbors of the point
+     */
+    @Override
+    public void neighbors(Point point, Consumer<Point> neighbors) {
+      if (isOpen(point.x - 1, point.y)) {
+        neighbors.accept(new Point(point.x - 1, point.y));
+      }
+
+      if (isOpen(point.x + 1, point.y)) {
+        neighbors.accept(new Point(point.x + 1, point.y));
+      }
+
+      if (isOpen(point.x, point.y - 1)) {
+        neighbors.accept(new Point(point.x, point.y - 1));
+      }
+
+      if (isOpen(point.x, point.y + 1)) {
+        neighbors.accept(new Point(point.x, point.y + 1));
+      }
+    }
+
+    /**
+     * Passes the open neighbors of the given encoded point to the neighbors consumer.
+     *
+     * @param point     Encoded point to find neighbors for
+     * @param neighbors Consumer that accepts the encoded open (non-wall) neighbors of the point
+     */
+    @Override
+    public void neighbors(int point, IntConsumer neighbors) {
+      int x = decodeX(point);
+      int y = decodeY(point);
+
+      if (isOpen(x - 1, y)) {
+        neighbors.accept(encode(x - 1, y));
+      }
+
+      if (x < MAX_COORDINATE && isOpen(x + 1, y)) {
+        neighbors.accept(encode(x + 1, y));
+      }
+
+      if (isOpen(x, y - 1)) {
+        neighbors.accept(encode(x, y - 1));
+      }
+
+      if (y < MAX_COORDINATE && isOpen(x, y + 1)) {
+        neighbors.accept(encode(x, y + 1));
+      }
+    }
+
+    /**
+     * Calculates the taxi-cab distance between two encoded points.
+     *
+     * @param from Encoded starting point
+     * @param end  Encoded goal point
+     * @return Heuristic number of steps between from and end
+     * @see #heuristicCost(Point, Point)
+     */
+    @Override
+    public int heuristicCost(int from, int end) {
+      return Math.abs(decodeX(end) - decodeX(from)) + Math.abs(decodeY(end) - decodeY(from));
     }
 
     /**
@@ -175,13 +425,398 @@ public class Problem13 {
      * @return Rendered maze.
      */
     public ImmutableList<String> render(Point end) {
-      return IntStream.rangeClosed(0, end.y)
-          .mapToObj(y ->
-              IntStream.rangeClosed(0, end.x)
-                  .mapToObj(x -> isOpen(new Problem13.Point(x, y)) ? '.' : '#')
-                  .collect(StringBuilder::new, StringBuilder::append, StringBuilder::append)
-                  .toString()
-          ).collect(new ImmutableListCollector<>());
+      ImmutableList.Builder<String> rows = ImmutableList.builder();
+      char[] row = new char[end.x + 1];
+
+      for (int y = 0; y <= end.y; y ++) {
+        for (int x = 0; x <= end.x; x ++) {
+          row[x] = isOpen(x, y) ? '.' : '#';
+        }
+
+        rows.add(new String(row));
+      }
+
+      return rows.build();
+    }
+
+    /**
+     * Renders a region of the maze to a channel, one line per row with open spaces as '.' and walls as '#',
+     * and the overlay's characters on top.  Rows are written from a reusable buffer as they're rendered, so
+     * regions far too large to hold in memory as strings can be rendered.
+     *
+     * @param min     Upper left corner of the region, inclusive
+     * @param max     Lower right corner of the region, inclusive
+     * @param overlay Characters to draw over the maze, or Overlay.NONE
+     * @param channel Channel to write the rendered maze to as ASCII
+     * @throws IOException if writing to the channel fails
+     */
+    public void render(Point min, Point max, Overlay overlay, WritableByteChannel channel) throws IOException {
+      render(min, max, overlay, (buffer, length) -> {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+        while (bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+      });
+    }
+
+    /**
+     * Renders a region of the maze to a writer, like render(min, max, overlay, channel).
+     *
+     * @param min     Upper left corner of the region, inclusive
+     * @param max     Lower right corner of the region, inclusive
+     * @param overlay Characters to draw over the maze, or Overlay.NONE
+     * @param writer  Writer to write the rendered maze to
+     * @throws IOException if writing fails
+     */
+    public void render(Point min, Point max, Overlay overlay, Writer writer) throws IOException {
+      char[] chars = new char[RENDER_BUFFER_BYTES];
+
+      render(min, max, overlay, (buffer, length) -> {
+        for (int i = 0; i < length; i ++) {
+          chars[i] = (char) buffer[i];
+        }
+        writer.write(chars, 0, length);
+      });
+    }
+
+    /** Receives each full buffer of a rendered maze. */
+    @FunctionalInterface
+    private interface RenderSink {
+      void write(byte[] buffer, int length) throws IOException;
+    }
+
+    private void render(Point min, Point max, Overlay overlay, RenderSink sink) throws IOException {
+      if (min.x < 0 || min.y < 0 || min.x > max.x || min.y > max.y) {
+        throw new IllegalArgumentException("Invalid region from " + min + " to " + max);
+      }
+
+      byte[] buffer = new byte[RENDER_BUFFER_BYTES];
+      int length = 0;
+
+      for (int y = min.y; y <= max.y; y ++) {
+        for (int x = min.x; x <= max.x; x ++) {
+          if (length == buffer.length) {
+            sink.write(buffer, length);
+            length = 0;
+          }
+
+          char overlaid = overlay.at(x, y);
+          buffer[length ++] = (byte) (overlaid != 0 ? overlaid : isOpen(x, y) ? '.' : '#');
+        }
+
+        if (length == buffer.length) {
+          sink.write(buffer, length);
+          length = 0;
+        }
+        buffer[length ++] = '\n';
+      }
+
+      sink.write(buffer, length);
+    }
+
+    /**
+     * Level-synchronous breadth first search over encoded points.  Every point in a frontier is the same
+     * number of steps from the start, so distances are just the level number and never have to be stored.
+     * Visited points are bits in 64x64 tiles that are allocated as the search reaches them, so memory grows
+     * with the part of the maze the search visits rather than with maxSteps.
+     */
+    private final class BreadthFirstSearch {
+      private final int maxSteps;
+      private final int minX; // Box of points within maxSteps of the start, which are the only ones it can reach.
+      private final int minY;
+      private final int maxX;
+      private final int maxY;
+      private final long[][][] visited = new long[TILES][][]; // Tiles by tile y and then tile x.
+
+      private int[] frontier = new int[16];
+      private int frontierSize = 0;
+      private int[] next = new int[16];
+      private int nextSize = 0;
+
+      private int reachable = 0; // Number of points reached.
+      private int[] histogram = new int[16]; // Number of points at each distance.
+      private int levels = 0; // Number of distances in the histogram.
+
+      private BreadthFirstSearch(int start, int maxSteps) {
+        if (maxSteps < 0) {
+          throw new IllegalArgumentException("Steps can't be negative: " + maxSteps);
+        }
+
+        int x = decodeX(start);
+        int y = decodeY(start);
+
+        this.maxSteps = maxSteps;
+        this.minX = (int) Math.max(0, (long) x - maxSteps);
+        this.minY = (int) Math.max(0, (long) y - maxSteps);
+        this.maxX = (int) Math.min(MAX_COORDINATE, (long) x + maxSteps);
+        this.maxY = (int) Math.min(MAX_COORDINATE, (long) y + maxSteps);
+
+        // The start counts as reachable even if it's a wall, since it's where the search is standing.
+        markVisited(x, y);
+        frontier[frontierSize ++] = start;
+      }
+
+      /** Runs the search to the end, counting the reachable points. */
+      private void run() {
+        for (int steps = 0; frontierSize > 0; steps ++) {
+          reachable += frontierSize;
+
+          if (levels == histogram.length) {
+            histogram = Arrays.copyOf(histogram, levels * 2);
+          }
+          histogram[levels ++] = frontierSize;
+
+          if (steps == maxSteps) {
+            break;
+          }
+
+          for (int i = 0; i < frontierSize; i ++) {
+            int x = decodeX(frontier[i]);
+            int y = decodeY(frontier[i]);
+
+            visit(x - 1, y);
+            visit(x + 1, y);
+            visit(x, y - 1);
+            visit(x, y + 1);
+          }
+
+          int[] swap = frontier;
+          frontier = next;
+          frontierSize = nextSize;
+          next = swap;
+          nextSize = 0;
+        }
+      }
+
+      /** Adds the point to the next frontier if it's in the search's box, open, and not visited yet. */
+      private void visit(int x, int y) {
+        if (x < minX || x > maxX || y < minY || y > maxY || !isOpen(x, y) || !markVisited(x, y)) {
+          return;
+        }
+
+        if (nextSize == next.length) {
+          next = Arrays.copyOf(next, nextSize * 2);
+        }
+        next[nextSize ++] = encode(x, y);
+      }
+
+      /** @return Whether the point was unvisited before it was marked */
+      private boolean markVisited(int x, int y) {
+        long[][] tileRow = visited[y >>> TILE_BITS];
+        if (tileRow == null) {
+          tileRow = visited[y >>> TILE_BITS] = new long[TILES][];
+        }
+
+        long[] tile = tileRow[x >>> TILE_BITS];
+        if (tile == null) {
+          tile = tileRow[x >>> TILE_BITS] = new long[TILE_SIZE];
+        }
+
+        int row = y & (TILE_SIZE - 1);
+        long mask = 1L << x; // Shifts of a long only use the low 6 bits of x.
+
+        if ((tile[row] & mask) != 0) {
+          return false;
+        }
+
+        tile[row] |= mask;
+        return true;
+      }
+    }
+
+    /**
+     * Multi-source breadth first search of a region that expands each level in parallel.  A level's frontier
+     * is split into chunks, and each chunk's task claims unvisited neighbors by setting their bit in an atomic
+     * bitset.  Only the task that sets a point's bit writes its distance and adds it to the next frontier, and
+     * joining the chunks publishes those writes before the next level reads them.
+     */
+    private final class ParallelBreadthFirstSearch extends RecursiveTask<DistanceField> {
+      private static final long serialVersionUID = 1L;
+      private static final int CHUNK_SIZE = 1024; // Frontier points expanded by each task.
+
+      private final Collection<Point> sources;
+      private final Point min;
+      private final Point max;
+      private final int width;
+      private final int[] distances;
+      private final AtomicLongArray visited;
+
+      private ParallelBreadthFirstSearch(Collection<Point> sources, Point min, Point max, int cells) {
+        this.sources = sources;
+        this.min = min;
+        this.max = max;
+        this.width = max.x - min.x + 1;
+        this.distances = new int[cells];
+        this.visited = new AtomicLongArray((cells + 63) >>> 6);
+      }
+
+      @Override
+      protected DistanceField compute() {
+        Arrays.fill(distances, DistanceField.UNREACHABLE);
+
+        int[] frontier = new int[sources.size()];
+        int frontierSize = 0;
+
+        // Sources count as reached even if they're walls, like the start of reachable.
+        for (Point source : sources) {
+          if (source.x < min.x || source.x > max.x || source.y < min.y || source.y > max.y) {
+            throw new IllegalArgumentException(source + " is outside the region from " + min + " to " + max);
+          }
+
+          if (claim(source.x, source.y, 0)) {
+            frontier[frontierSize ++] = encode(source.x, source.y);
+          }
+        }
+
+        for (int steps = 1; frontierSize > 0; steps ++) {
+          List<ExpandChunk> chunks = new ArrayList<>();
+          for (int from = 0; from < frontierSize; from += CHUNK_SIZE) {
+            chunks.add(new ExpandChunk(frontier, from, Math.min(frontierSize, from + CHUNK_SIZE), steps));
+          }
+          invokeAll(chunks);
+
+          int nextSize = 0;
+          for (ExpandChunk chunk : chunks) {
+            nextSize += chunk.foundSize;
+          }
+
+          int[] next = new int[nextSize];
+          nextSize = 0;
+          for (ExpandChunk chunk : chunks) {
+            System.arraycopy(chunk.found, 0, next, nextSize, chunk.foundSize);
+            nextSize += chunk.foundSize;
+          }
+
+          frontier = next;
+          frontierSize = nextSize;
+        }
+
+        return new DistanceField(min, max, distances);
+      }
+
+      /** Expands part of a frontier, collecting the neighbors it claims for the next frontier. */
+      private final class ExpandChunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final int steps;
+
+        private int[] found = new int[16];
+        private int foundSize = 0;
+
+        private ExpandChunk(int[] frontier, int from, int to, int steps) {
+          this.frontier = frontier;
+          this.from = from;
+          this.to = to;
+          this.steps = steps;
+        }
+
+        @Override
+        protected void compute() {
+          for (int i = from; i < to; i ++) {
+            int x = decodeX(frontier[i]);
+            int y = decodeY(frontier[i]);
+
+            visit(x - 1, y);
+            visit(x + 1, y);
+            visit(x, y - 1);
+            visit(x, y + 1);
+          }
+        }
+
+        private void visit(int x, int y) {
+          if (x < min.x || x > max.x || y < min.y || y > max.y || !isOpen(x, y) || !claim(x, y, steps)) {
+            return;
+          }
+
+          if (foundSize == found.length) {
+            found = Arrays.copyOf(found, foundSize * 2);
+          }
+          found[foundSize ++] = encode(x, y);
+        }
+      }
+
+      /**
+       * Marks the point visited and records its distance, unless another task got to it first.
+       *
+       * @return Whether this call visited the point
+       */
+      private boolean claim(int x, int y, int steps) {
+        int cell = (y - min.y) * width + (x - min.x);
+        int word = cell >>> 6;
+        long mask = 1L << cell;
+
+        long bits;
+        do {
+          bits = visited.get(word);
+          if ((bits & mask) != 0) {
+            return false;
+          }
+        } while (!visited.compareAndSet(word, bits, bits | mask));
+
+        distances[cell] = steps;
+        return true;
+      }
+    }
+
+    /**
+     * Cache of which cells in the encodable part of a maze are open, as bits in 64x64 tiles.  A tile is
+     * computed in bulk the first time one of its cells is read, so only the regions that searches visit are
+     * ever computed.  Tiles are published with compareAndSet, which makes the cache safe to read from
+     * several threads - threads that race to compute a tile get the same bits, and only one copy is kept.
+     */
+    private static final class OpenCells {
+      private final int input;
+
+      // Tiles by tile y and then tile x.  Rows of tiles are allocated as they're needed too.
+      private final AtomicReferenceArray<AtomicReferenceArray<long[]>> tiles = new AtomicReferenceArray<>(TILES);
+
+      private OpenCells(int input) {
+        this.input = input;
+      }
+
+      /** @return Whether the cell is open, for coordinates from 0 to MAX_COORDINATE */
+      private boolean isOpen(int x, int y) {
+        long[] tile = tile(x >>> TILE_BITS, y >>> TILE_BITS);
+        return (tile[y & (TILE_SIZE - 1)] & 1L << x) != 0; // Shifts of a long only use the low 6 bits of x.
+      }
+
+      private long[] tile(int tileX, int tileY) {
+        AtomicReferenceArray<long[]> row = tiles.get(tileY);
+        if (row == null) {
+          tiles.compareAndSet(tileY, null, new AtomicReferenceArray<>(TILES));
+          row = tiles.get(tileY);
+        }
+
+        long[] tile = row.get(tileX);
+        if (tile == null) {
+          row.compareAndSet(tileX, null, computeTile(tileX, tileY));
+          tile = row.get(tileX);
+        }
+
+        return tile;
+      }
+
+      private long[] computeTile(int tileX, int tileY) {
+        long[] tile = new long[TILE_SIZE];
+
+        for (int row = 0; row < TILE_SIZE; row ++) {
+          int y = tileY * TILE_SIZE + row;
+          long bits = 0;
+
+          for (int column = 0; column < TILE_SIZE; column ++) {
+            if (computeOpen(input, tileX * TILE_SIZE + column, y)) {
+              bits |= 1L << column;
+            }
+          }
+
+          tile[row] = bits;
+        }
+
+        return tile;
+      }
     }
   }
 
@@ -1,55 +1,209 @@
 package dev.adventofcode2016;
 
-import com.google.common.base.Charsets;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dev.adventofcode2016.util.Checkpoint;
+import dev.adventofcode2016.util.DigestFileCache;
+import dev.adventofcode2016.util.Md5;
+import dev.adventofcode2016.util.MultiLaneMd5;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 public class Problem14 {
 
-  public static class KeyGenerator {
-    private static final HashFunction MD5 = Hashing.md5();
+  public static class KeyGenerator implements AutoCloseable {
+
+    /**
+     * Algorithm that turns a salted input (salt + index) into a key.  The key is the md5 hash of the salted
+     * input, which is stretched by hashing its hex string some number of extra times.
+     */
+    public static final class HashAlgorithm {
+      private final int stretches;
+
+      private HashAlgorithm(int stretches) {
+        this.stretches = stretches;
+      }
+    }
 
     /** Plain hashing algorithm.  Takes a salted input (salt + index), and runs md5 on it. */
-    public static final Function<String, String> PLAIN_HASH = (salted) -> MD5.hashString(salted, Charsets.UTF_8).toString();
+    public static final HashAlgorithm PLAIN_HASH = new HashAlgorithm(0);
 
     /** Stretched hashing algorithm.  Takes a slated input (salt + index), and runs md5 on the output 2017 times. */
-    public static final Function<String, String> STRETCHED_HASH = (salted) -> {
-      String hash = PLAIN_HASH.apply(salted);
+    public static final HashAlgorithm STRETCHED_HASH = new HashAlgorithm(2016);
+
+    private static final int HEX_LENGTH = Md5.DIGEST_WORDS * 8;
+    private static final int MAX_INDEX_DIGITS = 10; // Integer.MAX_VALUE has 10 digits.
+    private static final int LOOKAHEAD = 1000; // A key's quintuple has to be in one of the next 1000 hashes.
+    private static final int CAPACITY = 1024; // Keys in the ring buffer - the lookahead plus a batch of lanes.
+    private static final int NONE = -1;
+
+    /**
+     * Hashes batches of keys with the generator's hash algorithm.  Every key starts with the salt, so its message
+     * words are decoded once and only the index digits are decoded per key.  Consecutive keys are hashed
+     * together, one per lane, which also keeps the lanes in step while they're stretched.  The hash functions keep scratch space, so each thread that hashes keys has its own.
+     */
+    private final class Hasher {
+      private final MultiLaneMd5 salted = new MultiLaneMd5(salt.getBytes(StandardCharsets.UTF_8));
+      private final MultiLaneMd5 md5 = new MultiLaneMd5();
+      private final byte[] messages = new byte[MultiLaneMd5.LANES * MAX_INDEX_DIGITS];
+
+      /**
+       * Hashes the keys for count indexes starting at start, which all have the same number of digits.
+       *
+       * @return Digests of the keys, 4 ints per key
+       */
+      private int[] hash(int start, int count) {
+        int digits = Integer.toString(start).length();
+        for (int lane = 0; lane < count; lane ++) {
+          String laneIndex = Integer.toString(start + lane);
+
+          for (int i = 0; i < digits; i ++) {
+            messages[lane * digits + i] = (byte) laneIndex.charAt(i);
+          }
+        }
+
+        int[] digests = new int[count * Md5.DIGEST_WORDS];
+        salted.digest(messages, digits, count, digests);
+        md5.stretch(digests, count, stretches);
 
-      for (int i = 0; i < 2016; i ++) {
-        hash = PLAIN_HASH.apply(hash);
+        return digests;
       }
+    }
+
+    private final String salt;
+    private final int stretches;
+    private final byte[] hex = new byte[HEX_LENGTH];
 
-      return hash;
-    };
+    // Batches are hashed ahead of the keys that are being checked by a pool of producer threads, or by
+    // the calling thread if there's only one thread.  pending holds the batches after next in index order,
+    // and is bounded so producers don't run too far ahead.
+    private final ThreadLocal<Hasher> hashers = ThreadLocal.withInitial(Hasher::new);
+    private final ThreadPoolExecutor producers; // Null if keys are hashed by the calling thread.
+    private final int maxPending;
+    private final Deque<Future<int[]>> pending = new ArrayDeque<>();
+    private int scheduled = 0; // Next index to schedule a batch for.
 
-    // Problem14 uses lookahead to determine if a key is valid (one of the next 1000 keys must
-    // match a condition), so keyCache caches keys.
-    private final LoadingCache<Integer, String> keyCache;
+    // Keys that were hashed by earlier generators with the same salt and hash algorithm.
+    private final DigestFileCache cache; // Null if keys aren't cached.
+    private final int[] cached = new int[Md5.DIGEST_WORDS];
+
+    // Problem14 uses lookahead to determine if a key is valid (one of the next 1000 keys must match a
+    // condition), so the most recent keys are kept in a ring buffer, where key i is in slot i % CAPACITY.
+    // Keys are scanned for triples and quintuples once, when they're hashed.
+    private final int[] keys = new int[CAPACITY * Md5.DIGEST_WORDS];
+    private final byte[] triples = new byte[CAPACITY]; // Hex digit of each key's first triple, or NONE.
+    // nextQuintuples[slot * 16 + digit] is the first index after the slot's key whose key has five of the digit
+    // in a row, or NONE if there isn't one in the keys hashed so far.  Only filled in within the lookahead.
+    private final int[] nextQuintuples = new int[CAPACITY * 16];
+    private final int[] lastQuintuples = new int[16]; // Most recent index with five of each digit in a row.
+    private int oldest = 0; // Oldest index in the ring buffer.
+    private int next = 0; // Next index to hash.
+
+    /**
+     * Constructs a new KeyGenerator with the given salt.  Numbers will be appended to the salt.  Stretched
+     * keys are hashed by a thread per processor, and plain keys are cheap enough to hash on the calling thread.
+     *
+     * @param salt          Salt to use to generate keys
+     * @param hashAlgorithm Algorithm that turns the salt + index into a key
+     */
+    public KeyGenerator(String salt, HashAlgorithm hashAlgorithm) {
+      this(salt, hashAlgorithm, defaultThreads(hashAlgorithm));
+    }
+
+    /**
+     * Constructs a new KeyGenerator with the given salt that saves keys to a cache file in cacheDirectory, and
+     * reads keys from it instead of hashing them if an earlier generator with the same salt and hash algorithm
+     * already saved them.
+     *
+     * @param salt           Salt to use to generate keys
+     * @param hashAlgorithm  Algorithm that turns the salt + index into a key
+     * @param cacheDirectory Directory for cache files, which is created if it doesn't exist
+     */
+    public KeyGenerator(String salt, HashAlgorithm hashAlgorithm, Path cacheDirectory) {
+      this(salt, hashAlgorithm, defaultThreads(hashAlgorithm), cacheDirectory);
+    }
 
     /**
      * Constructs a new KeyGenerator with the given salt.  Numbers will be appended to the salt.
      *
-     * @param salt Salt to use to generate keys
+     * @param salt          Salt to use to generate keys
+     * @param hashAlgorithm Algorithm that turns the salt + index into a key
+     * @param threads       Number of threads that hash keys ahead of the ones being checked.  1 hashes keys
+     *                      on the calling thread when they're needed.
      */
-    public KeyGenerator(String salt, Function<String, String> hashAlgorithm) {
-      this.keyCache = CacheBuilder.newBuilder()
-          .maximumSize(2000)
-          .build(
-              new CacheLoader<Integer, String>() {
-                @Override
-                public String load(Integer index) throws Exception {
-                  return hashAlgorithm.apply(salt + index);
-                }
-              }
-          );
+    public KeyGenerator(String salt, HashAlgorithm hashAlgorithm, int threads) {
+      this(salt, hashAlgorithm, threads, (DigestFileCache) null);
+    }
+
+    /**
+     * Constructs a new KeyGenerator with the given salt that saves keys to a cache file in cacheDirectory.
+     *
+     * @param salt           Salt to use to generate keys
+     * @param hashAlgorithm  Algorithm that turns the salt + index into a key
+     * @param threads        Number of threads that hash keys ahead of the ones being checked.  1 hashes keys
+     *                       on the calling thread when they're needed.
+     * @param cacheDirectory Directory for cache files, which is created if it doesn't exist
+     */
+    public KeyGenerator(String salt, HashAlgorithm hashAlgorithm, int threads, Path cacheDirectory) {
+      this(salt, hashAlgorithm, threads, openCache(cacheDirectory, salt, hashAlgorithm));
+    }
+
+    private KeyGenerator(String salt, HashAlgorithm hashAlgorithm, int threads, DigestFileCache cache) {
+      if (threads < 1) {
+        throw new IllegalArgumentException("Can't hash keys with " + threads + " threads.");
+      }
+
+      this.salt = salt;
+      this.stretches = hashAlgorithm.stretches;
+      this.maxPending = 4 * threads;
+      this.cache = cache;
+
+      if (threads > 1) {
+        // Daemon threads that time out when they're idle, so an abandoned generator doesn't keep threads around.
+        this.producers = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("key-generator-%d").setDaemon(true).build());
+        this.producers.allowCoreThreadTimeOut(true);
+      } else {
+        this.producers = null;
+      }
+
+      Arrays.fill(lastQuintuples, NONE);
+    }
+
+    /** @return Number of threads that hash keys by default - stretched keys are worth hashing in parallel */
+    private static int defaultThreads(HashAlgorithm hashAlgorithm) {
+      return hashAlgorithm.stretches > 0 ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    /**
+     * Opens the cache file for the salt and hash algorithm in the directory.  The file is named after the
+     * hex encoded salt, so salts don't need to be valid file names.
+     */
+    private static DigestFileCache openCache(Path cacheDirectory, String salt, HashAlgorithm hashAlgorithm) {
+      try {
+        Files.createDirectories(cacheDirectory);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Couldn't create key cache directory " + cacheDirectory, e);
+      }
+
+      String encodedSalt = BaseEncoding.base16().lowerCase().encode(salt.getBytes(StandardCharsets.UTF_8));
+      return new DigestFileCache(cacheDirectory.resolve(encodedSalt + "-" + hashAlgorithm.stretches + ".digests"));
     }
 
     /**
@@ -58,8 +212,164 @@ public class Problem14 {
      * @param index Key index
      * @return Key for the given index
      */
-    public String generateKey(int index) {
-      return keyCache.getUnchecked(index);
+    public synchronized String generateKey(int index) {
+      hashThrough(index);
+
+      Md5.toHex(keys, slot(index) * Md5.DIGEST_WORDS, hex, 0);
+      return new String(hex, StandardCharsets.US_ASCII);
+    }
+
+    /** Hashes keys until the key for index is in the ring buffer. */
+    private void hashThrough(int index) {
+      if (index < oldest || index >= next + CAPACITY) {
+        // Every key in the buffer would be evicted before reaching index, so start over at it.
+        oldest = index;
+        next = index;
+        Arrays.fill(lastQuintuples, NONE);
+
+        pending.forEach(batch -> batch.cancel(false));
+        pending.clear();
+        scheduled = index;
+      }
+
+      while (next <= index) {
+        if (cache != null && next < cache.size()) {
+          cache.get(next, cached, 0);
+          add(cached, 0);
+          continue;
+        }
+
+        int start = next;
+        int[] batch = nextBatch();
+        for (int offset = 0; offset < batch.length; offset += Md5.DIGEST_WORDS) {
+          add(batch, offset);
+        }
+
+        if (cache != null && start == cache.size()) {
+          cache.append(batch, 0, batch.length / Md5.DIGEST_WORDS); // Only contiguous keys are cached.
+        }
+      }
+    }
+
+    /**
+     * Returns the digests of the batch of keys that starts at next, in index order.  With producer threads,
+     * schedules batches until the pending batches are full first, so they're hashed in the background.
+     */
+    private int[] nextBatch() {
+      if (producers == null) {
+        return hashers.get().hash(next, batchSize(next));
+      }
+
+      if (pending.isEmpty()) {
+        scheduled = next; // Keys up to next might have come from the cache instead.
+      }
+
+      while (pending.size() < maxPending) {
+        int start = scheduled;
+        int count = batchSize(start);
+
+        pending.add(producers.submit(() -> hashers.get().hash(start, count)));
+        scheduled += count;
+      }
+
+      return Futures.getUnchecked(pending.remove());
+    }
+
+    /** @return Number of keys in the batch that starts at start.  Lanes have to be the same length, so it stops if the number of digits changes. */
+    private static int batchSize(int start) {
+      int digits = Integer.toString(start).length();
+      int count = 1;
+
+      while (count < MultiLaneMd5.LANES && Integer.toString(start + count).length() == digits) {
+        count++;
+      }
+
+      return count;
+    }
+
+    /** Adds the key for the next index to the ring buffer, evicting the oldest key if the buffer is full. */
+    private void add(int[] digest, int offset) {
+      int index = next++;
+      oldest = Math.max(oldest, index - CAPACITY + 1);
+
+      int slot = slot(index);
+      System.arraycopy(digest, offset, keys, slot * Md5.DIGEST_WORDS, Md5.DIGEST_WORDS);
+      Arrays.fill(nextQuintuples, slot * 16, slot * 16 + 16, NONE);
+
+      Md5.toHex(digest, offset, hex, 0);
+      triples[slot] = (byte) firstTriple(hex);
+
+      int quintuples = quintuples(hex);
+      while (quintuples != 0) {
+        int digit = Integer.numberOfTrailingZeros(quintuples);
+        quintuples &= quintuples - 1;
+
+        // Earlier keys in the lookahead see five of this digit here first, unless they saw it at the last
+        // index that had it.  That index hasn't seen one after it yet, so it's included.
+        int from = Math.max(Math.max(oldest, index - LOOKAHEAD), lastQuintuples[digit]);
+        for (int i = from; i < index; i ++) {
+          nextQuintuples[slot(i) * 16 + digit] = index;
+        }
+
+        lastQuintuples[digit] = index;
+      }
+    }
+
+    private static int slot(int index) {
+      return index & (CAPACITY - 1);
+    }
+
+    /** @return Value of the first hex digit that appears three times in a row in hex, or NONE */
+    private static int firstTriple(byte[] hex) {
+      for (int i = 0; i < HEX_LENGTH - 2; i ++) {
+        if (hex[i] == hex[i + 1] && hex[i + 1] == hex[i + 2]) {
+          return Character.digit(hex[i], 16);
+        }
+      }
+
+      return NONE;
+    }
+
+    /** @return Bitmask of the hex digits that appear five times in a row in hex, with the same bounds as isRepeatedFiveTimes */
+    private static int quintuples(byte[] hex) {
+      int quintuples = 0;
+
+      for (int i = 0; i < HEX_LENGTH - 5; i ++) {
+        if (hex[i] == hex[i + 1]
+            && hex[i] == hex[i + 2]
+            && hex[i] == hex[i + 3]
+            && hex[i] == hex[i + 4]) {
+          quintuples |= 1 << Character.digit(hex[i], 16);
+        }
+      }
+
+      return quintuples;
+    }
+
+    /**
+     * Cancels the batches that are still being hashed and stops the hashing threads, then forces the keys saved
+     * to the cache file to disk and closes it.
+     */
+    @Override
+    public synchronized void close() {
+      pending.forEach(batch -> batch.cancel(true));
+      pending.clear();
+
+      if (producers != null) {
+        producers.shutdownNow();
+      }
+
+      if (cache != null) {
+        cache.close();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "KeyGenerator{" +
+          "salt='" + salt + '\'' +
+          ", stretches=" + stretches +
+          '}';
     }
 
     /**
@@ -110,13 +420,17 @@ public class Problem14 {
      * @param index Index to check
      * @return Whether the index represents a valid key.
      */
-    public boolean isKeyIndex(int index) {
-      Optional<Character> tripleCharacter = tripleCharacter(generateKey(index));
+    public synchronized boolean isKeyIndex(int index) {
+      hashThrough(index);
+      hashThrough(index + LOOKAHEAD);
+
+      int triple = triples[slot(index)];
+      if (triple == NONE) {
+        return false;
+      }
 
-      return tripleCharacter.map(character ->
-          IntStream.rangeClosed(1, 1000)
-              .anyMatch(i -> isRepeatedFiveTimes(character, generateKey(index + i)))
-      ).orElse(false);
+      int nextQuintuple = nextQuintuples[slot(index) * 16 + triple];
+      return nextQuintuple != NONE && nextQuintuple <= index + LOOKAHEAD;
     }
   }
 
@@ -135,6 +449,42 @@ public class Problem14 {
         .getAsInt(); // IntStream.iterate is infinite, so max will never be empty
   }
 
+  /**
+   * Returns the index of the n-th valid key that the keyGenerator generates, saving the key indexes found so
+   * far to the checkpoint file periodically.  If the file has progress for the same salt and hash algorithm,
+   * the search resumes from it.
+   *
+   * @param keyGenerator   KeyGenerator to use
+   * @param n              Number of the key index to return, starting at 1
+   * @param checkpointFile File to resume from and save progress to
+   * @return Index of the n-th valid key
+   */
+  public static int nthKeyIndex(KeyGenerator keyGenerator, int n, Path checkpointFile) {
+    Checkpoint checkpoint = new Checkpoint(checkpointFile, "Problem14 " + keyGenerator);
+
+    // Map of key index to the value of its triple character.
+    NavigableMap<Long, Integer> keys = new TreeMap<>(checkpoint.hits());
+    long index = Math.max(1, checkpoint.scanned());
+
+    while (keys.size() < n) {
+      if (keyGenerator.isKeyIndex((int) index)) {
+        char triple = keyGenerator.tripleCharacter(keyGenerator.generateKey((int) index)).get();
+        keys.put(index, Character.digit(triple, 16));
+      }
+
+      index++;
+      checkpoint.update(index, keys);
+    }
+
+    checkpoint.save(index, keys);
+
+    return keys.keySet().stream()
+        .skip(n - 1)
+        .findFirst()
+        .get()
+        .intValue();
+  }
+
   public static void main(String[] args) {
     KeyGenerator plainKeyGenerator = new KeyGenerator("yjdafjpo", KeyGenerator.PLAIN_HASH);
     KeyGenerator stretchKeyGenerator = new KeyGenerator("yjdafjpo", KeyGenerator.STRETCHED_HASH);
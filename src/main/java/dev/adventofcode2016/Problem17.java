@@ -1,24 +1,34 @@
 package dev.adventofcode2016;
 
-import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
 import dev.adventofcode2016.algorithms.AStar;
+import dev.adventofcode2016.util.Md5;
 
-import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.Objects;
-import java.util.Queue;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 public class Problem17 implements AStar<Problem17.Position> {
-  public static final HashFunction MD5 = Hashing.md5();
+  private static final int FORK_DEPTH = 8; // Paths shorter than this fork a task per neighbor in longestPath.
+  private static final String MOVES = "UDLR"; // Moves by their 2 bit code in a packed path.
+  private static final int MOVES_PER_WORD = Long.SIZE / 2;
+
   private final String passcode;
-  private final Position start = new Position(0, 0, "");
-  private final Position end = new Position(3, 3, "");
+  private final byte[] passcodeBytes;
+
+  private final ThreadLocal<Hasher> hasher = ThreadLocal.withInitial(Hasher::new);
+  private final Position start;
+  private final Position end;
 
   public Problem17(String passcode) {
     this.passcode = passcode;
+    this.passcodeBytes = passcode.getBytes(StandardCharsets.UTF_8);
+    this.start = new Position(0, 0, "");
+    this.end = new Position(3, 3, "");
   }
 
   /**
@@ -43,41 +53,55 @@ public class Problem17 implements AStar<Problem17.Position> {
    */
   @Override
   public ImmutableList<Position> neighbors(Position position) {
-    String md5 = MD5.hashString(passcode + position.pathSoFar, Charsets.UTF_8).toString();
-
-    // First four characters are the unlocked doors - Up, Down, Left, and Right
-    // are unlocked if the characters are b, c, d, e, or f
-
     ImmutableList.Builder<Position> list = ImmutableList.builder();
+    neighbors(position, list::add);
+    return list.build();
+  }
 
-    if (isUnlocked(md5.charAt(0)) && position.y > 0) {
-      list.add(new Position(position.x, position.y - 1, position.pathSoFar + 'U'));
-    }
+  /**
+   * Passes the valid neighbors of the given position to the neighbors consumer.
+   *
+   * @param position  Position to calculate neighbors for
+   * @param neighbors Consumer that accepts the neighbors of the given position
+   */
+  @Override
+  public void neighbors(Position position, Consumer<Position> neighbors) {
+    int[] digest = hasher.get().digest(position);
 
-    if (isUnlocked(md5.charAt(1)) && position.y < 3) {
-      list.add(new Position(position.x, position.y + 1, position.pathSoFar + 'D'));
+    // First four characters are the unlocked doors - Up, Down, Left, and Right
+    // are unlocked if the characters are b, c, d, e, or f.  They're read before any neighbors
+    // are accepted, since a consumer that searches from a neighbor reuses this thread's digest.
+    boolean up = isUnlocked(Md5.hexDigit(digest, 0)) && position.y > 0;
+    boolean down = isUnlocked(Md5.hexDigit(digest, 1)) && position.y < 3;
+    boolean left = isUnlocked(Md5.hexDigit(digest, 2)) && position.x > 0;
+    boolean right = isUnlocked(Md5.hexDigit(digest, 3)) && position.x < 3;
+
+    if (up) {
+      neighbors.accept(new Position(position, 0, position.x, position.y - 1));
     }
 
-    if (isUnlocked(md5.charAt(2)) && position.x > 0) {
-      list.add(new Position(position.x - 1, position.y, position.pathSoFar + 'L'));
+    if (down) {
+      neighbors.accept(new Position(position, 1, position.x, position.y + 1));
     }
 
-    if (isUnlocked(md5.charAt(3)) && position.x < 3) {
-      list.add(new Position(position.x + 1, position.y, position.pathSoFar + 'R'));
+    if (left) {
+      neighbors.accept(new Position(position, 2, position.x - 1, position.y));
     }
 
-    return list.build();
+    if (right) {
+      neighbors.accept(new Position(position, 3, position.x + 1, position.y));
+    }
   }
 
   /**
-   * Returns whether the given character indicates that a door is unlocked.  Characters b, c, d, e, and f
-   * indicate an unlocked door.  All other characters (including a) indicate that the door is locked.
+   * Returns whether the given hex digit indicates that a door is unlocked.  Digits b, c, d, e, and f
+   * indicate an unlocked door.  All other digits (including a) indicate that the door is locked.
    *
-   * @param c Character to check
+   * @param hexDigit Value of the hex digit to check
    * @return Whether the door is unlocked
    */
-  private boolean isUnlocked(char c) {
-    return c >= 'b' && c <= 'f';
+  private boolean isUnlocked(int hexDigit) {
+    return hexDigit >= 0xb;
   }
 
   /**
@@ -96,45 +120,227 @@ public class Problem17 implements AStar<Problem17.Position> {
    * @return Sequence of doors opened to reach the lower right room.
    */
   public String shortestPath() {
-    return shortestPath(start, end).reverse().get(0).pathSoFar;
+    return shortestPath(start, end).reverse().get(0).pathSoFar();
   }
 
   /**
-   * Returns the longest path between the start position and the vault.
+   * Returns the longest path between the start position and the vault.  Subtrees of the first few moves
+   * are searched in parallel, and each search only keeps the longest path it's found so far.
    *
    * @return Longest path that still reaches the vault.
    */
   public String longestPath() {
-    ImmutableList.Builder<String> paths = ImmutableList.builder();
+    return longestPath(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns the longest path between the start position and the vault, searching subtrees on the given pool.
+   *
+   * @param pool Pool to run the search's tasks in
+   * @return Longest path that still reaches the vault.
+   */
+  public String longestPath(ForkJoinPool pool) {
+    Position longestPath = pool.invoke(new LongestPathTask(start));
 
-    Queue<Position> open = new ArrayDeque<>();
-    open.add(new Position(0, 0, ""));
+    if (longestPath == null) {
+      throw new IllegalStateException("No path to the vault with passcode " + passcode);
+    }
 
-    while (!open.isEmpty()) {
-      Position current = open.remove();
+    return longestPath.pathSoFar();
+  }
 
-      if (current.equals(end)) {
-        paths.add(current.pathSoFar);
-      } else {
-        open.addAll(neighbors(current));
+  /**
+   * Finds the longest path to the vault through a position.  Forks a task for each neighbor until paths are
+   * FORK_DEPTH moves long, then searches the rest of the subtree depth first on the current thread.
+   */
+  private final class LongestPathTask extends RecursiveTask<Position> {
+    private static final long serialVersionUID = 1L;
+
+    private final Position position;
+
+    private LongestPathTask(Position position) {
+      this.position = position;
+    }
+
+    @Override
+    protected Position compute() {
+      if (position.pathLength() >= FORK_DEPTH || isVault(position)) {
+        return longestPathFrom(position);
+      }
+
+      List<LongestPathTask> tasks = new ArrayList<>();
+      neighbors(position, neighbor -> tasks.add(new LongestPathTask(neighbor)));
+      invokeAll(tasks);
+
+      Position longestPath = null;
+      for (LongestPathTask task : tasks) {
+        longestPath = longer(longestPath, task.join());
       }
+
+      return longestPath;
+    }
+  }
+
+  /**
+   * Returns the longest path to the vault through the given position with a depth first search.
+   *
+   * @param position Position to search from
+   * @return Vault at the end of the longest path, or null if the vault can't be reached from position
+   */
+  private Position longestPathFrom(Position position) {
+    if (isVault(position)) {
+      return position; // All doors unlock once you reach the vault, so the path ends here.
+    }
+
+    Position[] longestPath = new Position[1];
+    neighbors(position, neighbor -> longestPath[0] = longer(longestPath[0], longestPathFrom(neighbor)));
+    return longestPath[0];
+  }
+
+  private boolean isVault(Position position) {
+    return position.x == end.x && position.y == end.y;
+  }
+
+  /** @return The position with the longer of the two paths, either of which can be null if there's no path. */
+  private static Position longer(Position a, Position b) {
+    if (a == null) {
+      return b;
     }
 
-    return paths.build().stream()
-        .sorted(Comparator.comparing(String::length).reversed())
-        .findFirst()
-        .orElseThrow(() -> new IllegalStateException("No path to the vault with passcode " + passcode));
+    return b == null || a.pathLength() >= b.pathLength() ? a : b;
   }
 
+  /**
+   * Per-thread scratch space for hashing paths.  Only the bytes after a position's midstate are hashed, which
+   * is less than one block no matter how long the path is.
+   */
+  private final class Hasher {
+    private final Md5 md5 = new Md5();
+    private final byte[] tail = new byte[Md5.BLOCK_BYTES];
+    private final int[] digest = new int[Md5.DIGEST_WORDS];
+
+    /** @return Digest of the passcode followed by the position's path, which is overwritten by the next call */
+    private int[] digest(Position position) {
+      int processed = position.processedLength();
+      int tailLength = position.messageLength() - processed;
+
+      for (int i = 0; i < tailLength; i ++) {
+        tail[i] = position.messageByte(processed + i);
+      }
+
+      md5.digest(position.midstate, processed, tail, 0, tailLength, digest);
+      return digest;
+    }
+
+    /** @return Midstate after compressing the block of the position's message that starts at offset */
+    private int[] compress(int[] midstate, Position position, int offset) {
+      for (int i = 0; i < Md5.BLOCK_BYTES; i ++) {
+        tail[i] = position.messageByte(offset + i);
+      }
+
+      int[] state = midstate.clone();
+      md5.compressBlock(state, tail, 0);
+      return state;
+    }
+  }
+
+  /**
+   * A room on the floor and the path taken to reach it.  Paths are packed 2 bits per move, and each position
+   * keeps the MD5 state after the full blocks of its passcode and path, so a child only copies a few words and
+   * hashes the last partial block instead of re-hashing the whole path.
+   *
+   * Positions don't hold the path as a String.  pathSoFar() decodes it, and pathLength() gives its length
+   * without decoding it.
+   */
   public final class Position {
     public final int x;
     public final int y;
-    public final String pathSoFar;
+
+    private final long[] moves; // 2 bit move codes, MOVES_PER_WORD per long, first move in the low bits.
+    private final int length; // Number of moves.
+    private final int[] midstate; // MD5 state after processedLength() bytes of the passcode and path.
 
     public Position(int x, int y, String pathSoFar) {
       this.x = x;
       this.y = y;
-      this.pathSoFar = pathSoFar;
+      this.length = pathSoFar.length();
+      this.moves = new long[length / MOVES_PER_WORD + 1];
+
+      for (int i = 0; i < length; i ++) {
+        int move = MOVES.indexOf(pathSoFar.charAt(i));
+        if (move < 0) {
+          throw new IllegalArgumentException("Invalid move " + pathSoFar.charAt(i) + " in path " + pathSoFar);
+        }
+
+        moves[i / MOVES_PER_WORD] |= (long) move << (2 * (i % MOVES_PER_WORD));
+      }
+
+      Hasher hasher = Problem17.this.hasher.get();
+      int[] midstate = Md5.initialState();
+      for (int offset = 0; offset < processedLength(); offset += Md5.BLOCK_BYTES) {
+        midstate = hasher.compress(midstate, this, offset);
+      }
+      this.midstate = midstate;
+    }
+
+    /** Constructs the position reached by taking the given move from parent. */
+    private Position(Position parent, int move, int x, int y) {
+      this.x = x;
+      this.y = y;
+      this.length = parent.length + 1;
+      this.moves = Arrays.copyOf(parent.moves, length / MOVES_PER_WORD + 1);
+
+      int index = parent.length;
+      moves[index / MOVES_PER_WORD] |= (long) move << (2 * (index % MOVES_PER_WORD));
+
+      // The parent's midstate is still valid unless this move completed a block.
+      if (processedLength() > parent.processedLength()) {
+        this.midstate = hasher.get().compress(parent.midstate, this, parent.processedLength());
+      } else {
+        this.midstate = parent.midstate;
+      }
+    }
+
+    /** @return Number of moves in the path taken to reach this position */
+    public int pathLength() {
+      return length;
+    }
+
+    /**
+     * Decodes the path taken to reach this position; builds a new String on each call.  Use pathLength() if
+     * only the length is needed.
+     *
+     * @return Path taken to reach this position, as U, D, L, and R moves
+     */
+    public String pathSoFar() {
+      StringBuilder path = new StringBuilder(length);
+      for (int i = 0; i < length; i ++) {
+        path.append(MOVES.charAt(move(i)));
+      }
+
+      return path.toString();
+    }
+
+    private int move(int index) {
+      return (int) (moves[index / MOVES_PER_WORD] >>> (2 * (index % MOVES_PER_WORD))) & 3;
+    }
+
+    /** @return Length of the hashed message, the passcode followed by the path */
+    private int messageLength() {
+      return passcodeBytes.length + length;
+    }
+
+    /** @return Number of message bytes in the midstate, which is every full block */
+    private int processedLength() {
+      return messageLength() / Md5.BLOCK_BYTES * Md5.BLOCK_BYTES;
+    }
+
+    private byte messageByte(int index) {
+      if (index < passcodeBytes.length) {
+        return passcodeBytes[index];
+      }
+
+      return (byte) MOVES.charAt(move(index - passcodeBytes.length));
     }
 
     @Override
@@ -142,7 +348,7 @@ public class Problem17 implements AStar<Problem17.Position> {
       return "Position{" +
           "x=" + x +
           ", y=" + y +
-          ", pathSoFar='" + pathSoFar + '\'' +
+          ", pathSoFar='" + pathSoFar() + '\'' +
           '}';
     }
 
@@ -168,12 +374,19 @@ public class Problem17 implements AStar<Problem17.Position> {
 
       // At all other positions, the path determines which doors are open, so the same position counts
       // as a different place in A* if the paths are different
-      return Objects.equals(pathSoFar, position.pathSoFar);
+      return length == position.length && Arrays.equals(moves, position.moves);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(x, y, passcode, pathSoFar);
+      int hash = 31 * x + y;
+
+      // Equal positions at the vault can have different paths, so their paths can't be part of the hash.
+      if (x == end.x && y == end.y) {
+        return hash;
+      }
+
+      return 31 * (31 * hash + length) + Arrays.hashCode(moves);
     }
   }
 
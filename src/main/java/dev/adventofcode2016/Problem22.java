@@ -10,9 +10,9 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 import dev.adventofcode2016.algorithms.AStar;
 import dev.adventofcode2016.util.ImmutableListCollector;
@@ -294,15 +294,24 @@ public class Problem22 implements AStar<Problem22.Grid> {
    */
   @Override
   public ImmutableList<Grid> neighbors(Grid grid) {
-    return Stream.of(
-        grid.moveEmpty(new Position(grid.empty.x - 1, grid.empty.y)),
-        grid.moveEmpty(new Position(grid.empty.x + 1, grid.empty.y)),
-        grid.moveEmpty(new Position(grid.empty.x, grid.empty.y - 1)),
-        grid.moveEmpty(new Position(grid.empty.x, grid.empty.y + 1))
-    )
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .collect(new ImmutableListCollector<>());
+    ImmutableList.Builder<Grid> neighbors = ImmutableList.builder();
+    neighbors(grid, neighbors::add);
+    return neighbors.build();
+  }
+
+  /**
+   * Passes the neighbors of the given grid to the neighbors consumer.  The empty space will be moved in
+   * all four directions.
+   *
+   * @param grid      Grid to check
+   * @param neighbors Consumer that accepts the neighbors of the grid
+   */
+  @Override
+  public void neighbors(Grid grid, Consumer<Grid> neighbors) {
+    grid.moveEmpty(new Position(grid.empty.x - 1, grid.empty.y)).ifPresent(neighbors);
+    grid.moveEmpty(new Position(grid.empty.x + 1, grid.empty.y)).ifPresent(neighbors);
+    grid.moveEmpty(new Position(grid.empty.x, grid.empty.y - 1)).ifPresent(neighbors);
+    grid.moveEmpty(new Position(grid.empty.x, grid.empty.y + 1)).ifPresent(neighbors);
   }
 
   /**
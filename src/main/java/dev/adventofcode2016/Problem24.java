@@ -0,0 +1,160 @@
+package dev.adventofcode2016;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import dev.adventofcode2016.algorithms.AStar;
+import dev.adventofcode2016.algorithms.HeldKarp;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+public class Problem24 {
+
+  public static class Position {
+    public final int x;
+    public final int y;
+
+    public Position(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Position position = (Position) o;
+      return x == position.x &&
+          y == position.y;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(x, y);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + x + ", " + y + ')';
+    }
+  }
+
+  /**
+   * Map of the air ducts.  Walls are marked as '#', open passages as '.', and numbered locations that
+   * the robot has to visit by their number.
+   */
+  public static class Ducts implements AStar<Position> {
+    private final boolean[][] open; // [y][x] is true if the position is open.
+    public final ImmutableList<Position> locations; // Locations, in order of their number.
+
+    public Ducts(boolean[][] open, ImmutableList<Position> locations) {
+      this.open = open;
+      this.locations = locations;
+    }
+
+    /**
+     * Parses ducts from the given lines.
+     *
+     * @param lines Lines of the map
+     * @return Ducts described by the lines
+     */
+    public static Ducts fromLines(List<String> lines) {
+      boolean[][] open = new boolean[lines.size()][];
+      TreeMap<Integer, Position> locations = new TreeMap<>();
+
+      for (int y = 0; y < lines.size(); y ++) {
+        String line = lines.get(y);
+        open[y] = new boolean[line.length()];
+
+        for (int x = 0; x < line.length(); x ++) {
+          char c = line.charAt(x);
+          open[y][x] = c != '#';
+
+          if (Character.isDigit(c)) {
+            locations.put(Character.digit(c, 10), new Position(x, y));
+          }
+        }
+      }
+
+      return new Ducts(open, ImmutableList.copyOf(locations.values()));
+    }
+
+    /**
+     * Returns whether the robot can move to the given position.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Whether the position is open.
+     */
+    public boolean isOpen(int x, int y) {
+      return y >= 0 && y < open.length && x >= 0 && x < open[y].length && open[y][x];
+    }
+
+    /**
+     * Returns the fewest number of steps the robot needs to visit every numbered location, starting at 0.
+     * Distances between locations are computed with one search per location, and the order to visit them
+     * in is solved with Held-Karp.
+     *
+     * @param returnToStart Whether the robot has to return to location 0 after visiting every location
+     * @return Fewest number of steps to visit every location
+     */
+    public int fewestSteps(boolean returnToStart) {
+      return HeldKarp.shortestRoute(distancesBetween(locations), 0, returnToStart);
+    }
+
+    /**
+     * Returns the taxicab distance between the positions, which ignores walls.
+     *
+     * @param from Starting position
+     * @param to   Ending position
+     * @return Heuristic number of steps between the positions
+     */
+    @Override
+    public int heuristicCost(Position from, Position to) {
+      return Math.abs(to.x - from.x) + Math.abs(to.y - from.y);
+    }
+
+    @Override
+    public ImmutableList<Position> neighbors(Position position) {
+      ImmutableList.Builder<Position> neighbors = ImmutableList.builder();
+      neighbors(position, neighbors::add);
+      return neighbors.build();
+    }
+
+    /**
+     * Passes the open positions next to the given position to the neighbors consumer.
+     *
+     * @param position  Position to find neighbors for
+     * @param neighbors Consumer that accepts the open neighbors of the position
+     */
+    @Override
+    public void neighbors(Position position, Consumer<Position> neighbors) {
+      if (isOpen(position.x - 1, position.y)) {
+        neighbors.accept(new Position(position.x - 1, position.y));
+      }
+
+      if (isOpen(position.x + 1, position.y)) {
+        neighbors.accept(new Position(position.x + 1, position.y));
+      }
+
+      if (isOpen(position.x, position.y - 1)) {
+        neighbors.accept(new Position(position.x, position.y - 1));
+      }
+
+      if (isOpen(position.x, position.y + 1)) {
+        neighbors.accept(new Position(position.x, position.y + 1));
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    Ducts ducts = Ducts.fromLines(Resources.readLines(Resources.getResource("problem24.txt"), Charsets.UTF_8));
+
+    System.out.println("Part 1: " + ducts.fewestSteps(false) + " steps to visit every location.");
+    System.out.println("Part 2: " + ducts.fewestSteps(true) + " steps to visit every location and return to 0.");
+  }
+}
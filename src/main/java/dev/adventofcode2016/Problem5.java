@@ -1,14 +1,366 @@
 package dev.adventofcode2016;
 
-import com.google.common.base.Charsets;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
+import dev.adventofcode2016.util.Checkpoint;
+import dev.adventofcode2016.util.Md5;
+import dev.adventofcode2016.util.MultiLaneMd5;
 
-import java.util.stream.IntStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class Problem5 {
 
-  public static final HashFunction MD5 = Hashing.md5();
+  /**
+   * Hashes doorID + index for increasing indexes, looking for interesting hashes that start with five zeros.
+   * The index is written into a reusable byte buffer as decimal digits and incremented in place, and hashes
+   * are checked on the digest words directly, so scanning doesn't allocate anything.  The doorID's message
+   * words are decoded once up front, so each hash only copies and decodes the index digits, and consecutive
+   * indexes are hashed together in the lanes of a multi-lane MD5.  Not thread safe.
+   */
+  public static class Miner {
+    private static final int MAX_INDEX_DIGITS = 19; // Long.MAX_VALUE has 19 digits.
+
+    // Interesting hashes start with 5 zero hex digits - the first two bytes and the high nibble
+    // of the third byte, which are the low 20 bits of the first digest word (minus the third byte's low nibble).
+    private static final int FIVE_ZEROS_MASK = 0x00F0FFFF;
+
+    private final MultiLaneMd5 md5;
+    private final byte[] input = new byte[MAX_INDEX_DIGITS]; // Decimal digits of the next index to hash
+    private final byte[] messages = new byte[MultiLaneMd5.LANES * MAX_INDEX_DIGITS]; // Digits of each lane's index
+    private final int[] digests = new int[MultiLaneMd5.LANES * Md5.DIGEST_WORDS];
+
+    private long index; // Next index to hash
+    private int length; // Number of digits in input
+
+    private long laneStart; // Index hashed in the first lane
+    private int lanes; // Number of lanes that were hashed
+    private int lane; // Next lane to check
+    private int hit; // First word of the last interesting hash
+
+    public Miner(String doorID) {
+      this.md5 = new MultiLaneMd5(doorID.getBytes(StandardCharsets.UTF_8));
+
+      seek(0);
+    }
+
+    /**
+     * Moves the miner to the given index, so the next hash checked is for doorID + index.
+     *
+     * @param index Index to check next
+     */
+    public void seek(long index) {
+      if (index < 0) {
+        throw new IllegalArgumentException("Index must not be negative: " + index);
+      }
+
+      this.index = index;
+      this.lanes = 0;
+      this.lane = 0;
+
+      int digits = 1;
+      for (long remaining = index / 10; remaining > 0; remaining /= 10) {
+        digits++;
+      }
+
+      length = digits;
+
+      long remaining = index;
+      for (int i = length - 1; i >= 0; i --) {
+        input[i] = (byte) ('0' + remaining % 10);
+        remaining /= 10;
+      }
+    }
+
+    /**
+     * Finds the next interesting hash, starting at the current index.  The miner is left at the index
+     * after the interesting one, and the hash's password characters are available from sixthDigit
+     * and seventhDigit.
+     *
+     * @return Index of the interesting hash
+     */
+    public long next() {
+      return next(Long.MAX_VALUE);
+    }
+
+    /**
+     * Finds the next interesting hash with an index between the current index and end.  If there is one,
+     * the miner is left at the index after it.  Otherwise the miner is left at end.
+     *
+     * @param end Index to stop searching at, exclusive
+     * @return Index of the interesting hash, or -1 if there isn't one before end
+     */
+    public long next(long end) {
+      while (true) {
+        for (; lane < lanes; lane ++) {
+          long hashed = laneStart + lane;
+          if (hashed >= end) {
+            return -1;
+          }
+
+          int firstWord = digests[lane * Md5.DIGEST_WORDS];
+          if ((firstWord & FIVE_ZEROS_MASK) == 0) {
+            hit = firstWord;
+            lane++;
+            return hashed;
+          }
+        }
+
+        if (index >= end) {
+          return -1;
+        }
+
+        hashLanes(end);
+      }
+    }
+
+    /**
+     * Hashes the next indexes before end in one multi-lane call.  Lanes have to be the same length,
+     * so the indexes stop early if the number of digits changes.
+     */
+    private void hashLanes(long end) {
+      int digits = length;
+
+      laneStart = index;
+      lanes = 0;
+      lane = 0;
+
+      while (lanes < MultiLaneMd5.LANES && index < end && length == digits) {
+        System.arraycopy(input, 0, messages, lanes * digits, digits);
+        lanes++;
+        increment();
+      }
+
+      md5.digest(messages, digits, lanes, digests);
+    }
+
+    /** @return First word of the last interesting hash, which contains its sixth and seventh hex digits */
+    public int firstWord() {
+      return hit;
+    }
+
+    /** @return Value of the sixth hex digit of the last interesting hash */
+    public int sixthDigit() {
+      return Problem5.sixthDigit(hit);
+    }
+
+    /** @return Value of the seventh hex digit of the last interesting hash */
+    public int seventhDigit() {
+      return Problem5.seventhDigit(hit);
+    }
+
+    /** Adds one to the index, carrying through its decimal digits in place. */
+    private void increment() {
+      index++;
+
+      for (int i = length - 1; i >= 0; i --) {
+        if (input[i] != '9') {
+          input[i]++;
+          return;
+        }
+
+        input[i] = '0';
+      }
+
+      // Every digit was a 9, so the index has one more digit - 10...0
+      input[0] = '1';
+      input[length++] = '0';
+    }
+  }
+
+  /**
+   * Mines interesting hashes in parallel.  Workers claim batches of indexes from a shared counter, so fast
+   * workers take more batches than slow ones, and record the interesting hashes they find in a sorted map.
+   *
+   * Batches finish out of order, so the miner tracks a watermark below which every index has been checked.
+   * Hits below the watermark are exactly the hits the sequential miner would have found by that point, so
+   * the search stops as soon as they're enough to answer the question, and the result doesn't depend on
+   * how batches were scheduled.
+   */
+  public static class BatchMiner {
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private final String doorID;
+    private final int threads;
+    private final int batchSize;
+
+    public BatchMiner(String doorID) {
+      this(doorID, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchMiner(String doorID, int threads, int batchSize) {
+      if (threads < 1) {
+        throw new IllegalArgumentException("Can't mine with " + threads + " threads.");
+      }
+
+      if (batchSize < 1) {
+        throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+      }
+
+      this.doorID = doorID;
+      this.threads = threads;
+      this.batchSize = batchSize;
+    }
+
+    /**
+     * Mines interesting hashes in index order until the hits found so far are enough.
+     *
+     * @param enough Returns whether the given hits, which include every interesting hash up to some index,
+     *               are enough to stop mining
+     * @return Map of index to the first word of its interesting hash, containing every interesting hash
+     *         up to an index where enough was satisfied.  May contain more hits than the smallest set that
+     *         satisfies enough, but never skips one.
+     */
+    public NavigableMap<Long, Integer> mine(Predicate<NavigableMap<Long, Integer>> enough) {
+      return mine(new Run(enough, 0, Collections.emptyMap(), (scanned, hits) -> {}));
+    }
+
+    /**
+     * Mines interesting hashes in index order until the hits found so far are enough, resuming from the
+     * checkpoint's progress.  Progress is saved to the checkpoint periodically while mining, and once
+     * mining is done.
+     *
+     * @param enough     Returns whether the given hits, which include every interesting hash up to some index,
+     *                   are enough to stop mining
+     * @param checkpoint Checkpoint to resume from and save progress to
+     * @return Map of index to the first word of its interesting hash, like mine(enough)
+     */
+    public NavigableMap<Long, Integer> mine(Predicate<NavigableMap<Long, Integer>> enough, Checkpoint checkpoint) {
+      Run run = new Run(enough, checkpoint.scanned(), checkpoint.hits(), checkpoint::update);
+      NavigableMap<Long, Integer> result = mine(run);
+
+      checkpoint.save(run.scannedIndex(), result);
+      return result;
+    }
+
+    private NavigableMap<Long, Integer> mine(Run run) {
+      if (run.done) {
+        return run.result; // The hits that were already known are enough.
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i ++) {
+          futures.add(executor.submit(() -> {
+            try {
+              run.work();
+            } catch (RuntimeException | Error e) {
+              run.done = true; // Stop the other workers, which would otherwise mine forever.
+              throw e;
+            }
+          }));
+        }
+
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (InterruptedException e) {
+        run.done = true;
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while mining hashes for " + doorID, e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException("Mining hashes for " + doorID + " failed", e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+
+      return run.result;
+    }
+
+    /** State shared by the workers during a call to mine. */
+    private final class Run {
+      private final Predicate<NavigableMap<Long, Integer>> enough;
+      private final long start; // Index of the first batch.
+      private final BiConsumer<Long, NavigableMap<Long, Integer>> progress;
+
+      private final AtomicLong nextBatch = new AtomicLong();
+      private final ConcurrentSkipListMap<Long, Integer> hits = new ConcurrentSkipListMap<>();
+      private volatile boolean done = false;
+
+      private final Set<Long> finishedBatches = new HashSet<>(); // Finished batches above the watermark, guarded by this.
+      private long scannedBatches = 0; // Every batch below this one has been scanned, guarded by this.
+      private NavigableMap<Long, Integer> result = null; // Guarded by this.
+
+      /**
+       * @param enough   Returns whether the hits are enough to stop mining
+       * @param start    Index to start mining at, where every index below it has already been scanned
+       * @param known    Hits that were already found below start
+       * @param progress Consumer that's passed the watermark and the hits below it each time it moves
+       */
+      private Run(Predicate<NavigableMap<Long, Integer>> enough, long start, Map<Long, Integer> known,
+                  BiConsumer<Long, NavigableMap<Long, Integer>> progress) {
+        this.enough = enough;
+        this.start = start;
+        this.progress = progress;
+
+        hits.putAll(known);
+        if (enough.test(hits)) {
+          result = new TreeMap<>(hits);
+          done = true;
+        }
+      }
+
+      private void work() {
+        Miner miner = new Miner(doorID);
+
+        while (!done) {
+          long batch = nextBatch.getAndIncrement();
+          long batchStart = start + batch * batchSize;
+          long batchEnd = batchStart + batchSize;
+
+          miner.seek(batchStart);
+          for (long hit = miner.next(batchEnd); hit != -1; hit = miner.next(batchEnd)) {
+            hits.put(hit, miner.firstWord());
+          }
+
+          finished(batch);
+        }
+      }
+
+      private synchronized void finished(long batch) {
+        finishedBatches.add(batch);
+        if (batch != scannedBatches || done) {
+          return; // The watermark didn't move, so nothing new is known.
+        }
+
+        while (finishedBatches.remove(scannedBatches)) {
+          scannedBatches++;
+        }
+
+        NavigableMap<Long, Integer> scanned = hits.headMap(scannedIndex(), false);
+        progress.accept(scannedIndex(), scanned);
+
+        if (enough.test(scanned)) {
+          result = new TreeMap<>(scanned);
+          done = true;
+        }
+      }
+
+      /** @return Index below which every index has been scanned */
+      private synchronized long scannedIndex() {
+        return start + scannedBatches * batchSize;
+      }
+    }
+  }
 
   /**
    * Calculates a password with the given length by finding interesting values.
@@ -20,15 +372,12 @@ public class Problem5 {
    * @return Door password
    */
   public static String password(String doorID, int length) {
-    return IntStream.iterate(0, i -> i + 1)
-        .parallel()
-        .mapToObj(i -> doorID + i) // Hash input is code + index
-        .map(code -> MD5.hashString(code, Charsets.UTF_8).toString()) // MD5
-        .filter(hash -> hash.startsWith("00000")) // Interesting codes start with five 0's
-        .map(hash -> hash.charAt(5)) // 6th character is the next character in the password.  Will box to Character
-        .limit(length) // Take 'length' interesting characters
-        .collect(StringBuilder::new, StringBuilder::append, StringBuilder::append) // Convert to string
-        .toString();
+    NavigableMap<Long, Integer> hits = new BatchMiner(doorID).mine(found -> found.size() >= length);
+
+    return hits.values().stream()
+        .limit(length)
+        .map(word -> String.valueOf(Character.forDigit(sixthDigit(word), 16))) // 6th character is the next character in the password.
+        .collect(Collectors.joining());
   }
 
   /**
@@ -44,31 +393,78 @@ public class Problem5 {
    * @return Door password
    */
   public static String positionPassword(String doorID) {
-    System.out.println("Decoding password...");
+    PositionDecoder decoder = new PositionDecoder();
+    new BatchMiner(doorID).mine(decoder);
+    return decoder.password();
+  }
 
-    char[] password = new char[]{'_', '_', '_', '_', '_', '_', '_', '_'};
-    System.out.println("  " + new String(password));
+  /**
+   * Calculates an 8 character password like positionPassword(doorID), saving progress to the checkpoint
+   * file periodically.  If the file has progress for the same doorID, mining resumes from it.
+   *
+   * @param doorID         Door identifier
+   * @param checkpointFile File to resume from and save progress to
+   * @return Door password
+   */
+  public static String positionPassword(String doorID, Path checkpointFile) {
+    Checkpoint checkpoint = new Checkpoint(checkpointFile, "Problem5 " + doorID);
+    PositionDecoder decoder = new PositionDecoder();
+    new BatchMiner(doorID).mine(decoder, checkpoint);
+    return decoder.password();
+  }
 
-    boolean done = false;
-    for (int i = 0; !done; i ++) {
-      String hash = MD5.hashString(doorID + i, Charsets.UTF_8).toString();
+  /**
+   * Fills in a position password from interesting hashes as the miner finds them.  The miner tests it each
+   * time its watermark moves, and it only decodes the hits it hasn't seen yet, so the password is printed
+   * while mining as each character is filled in.  Hits below the watermark never change, so decoding them
+   * once in index order gives the same password as decoding all of the hits at the end.
+   */
+  private static final class PositionDecoder implements Predicate<NavigableMap<Long, Integer>> {
+    private final char[] password = new char[]{'_', '_', '_', '_', '_', '_', '_', '_'};
+    private int missing = password.length;
+    private long decoded = -1; // Index of the last hit that was decoded.
 
-      if (hash.startsWith("00000")) {
-        int index = Character.digit(hash.charAt(5), 16);
-        char passwordChar = hash.charAt(6);
+    private PositionDecoder() {
+      System.out.println("Decoding password...");
+      System.out.println("  " + new String(password));
+    }
 
-        if (index < 8 && password[index] == '_') {
-          password[index] = passwordChar;
+    /** @return Whether every character of the password has been filled in */
+    @Override
+    public boolean test(NavigableMap<Long, Integer> hits) {
+      for (Map.Entry<Long, Integer> hit : hits.tailMap(decoded, false).entrySet()) {
+        if (missing == 0) {
+          break;
+        }
 
-          String passwordSoFar = new String(password);
-          System.out.println("  " + passwordSoFar);
+        decoded = hit.getKey();
+        int word = hit.getValue();
+        int index = sixthDigit(word);
 
-          done = passwordSoFar.indexOf('_') == -1;
+        if (index < 8 && password[index] == '_') {
+          password[index] = Character.forDigit(seventhDigit(word), 16);
+          missing --;
+          System.out.println("  " + new String(password));
         }
       }
+
+      return missing == 0;
+    }
+
+    /** @return Password, with '_' for characters that haven't been found */
+    private String password() {
+      return new String(password);
     }
+  }
+
+  /** @return Value of the sixth hex digit of a hash with the given first word */
+  private static int sixthDigit(int firstWord) {
+    return (firstWord >>> 16) & 0xF;
+  }
 
-    return new String(password);
+  /** @return Value of the seventh hex digit of a hash with the given first word */
+  private static int seventhDigit(int firstWord) {
+    return (firstWord >>> 28) & 0xF;
   }
 
   public static void main(String[] args) {
@@ -1,8 +1,11 @@
 package dev.adventofcode2016.algorithms;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * A* searching algorithm, for finding shortest paths efficiently.  POSITION
@@ -20,20 +23,58 @@ public interface AStar<POSITION> {
    * @return Shortest path between the two positions
    */
   default ImmutableList<POSITION> shortestPath(POSITION start, POSITION end) {
+    return shortestPath(start, end, SearchListener.NONE);
+  }
+
+  /**
+   * Calculates the shortest path between the starting and ending position, reporting the search's progress
+   * to the listener.
+   *
+   * @param start Starting position
+   * @param end Ending position
+   * @param listener Listener to report search events to, such as SearchStatistics
+   * @return Shortest path between the two positions
+   */
+  default ImmutableList<POSITION> shortestPath(POSITION start, POSITION end, SearchListener listener) {
     Map<POSITION, Integer> cost = new HashMap<>(); // Map of point to the cost of getting to it from the start node
-    // Map of point to the total cost of getting from the start
+    // Points to be evaluated, prioritized by the lowest score - the total cost of getting from the start
     // to the end passing through the node.  Part known, part heuristic.
-    Map<POSITION, Integer> score = new HashMap<>();
-
-    Set<POSITION> visited = new HashSet<>(); // Set of points that have already been visited
-    // Set of points to be evaluated, sorted by lowest score.
-    PriorityQueue<POSITION> open = new PriorityQueue<>(Comparator.comparing(score::get));
+    IndexedPriorityQueue<POSITION> open = new IndexedPriorityQueue<>();
     Map<POSITION, POSITION> from = new HashMap<>(); // Map of point to the point it can most efficiently be reached from
 
-    score.put(start, heuristicCost(start, end));
+    listener.searchStarted();
+
     cost.put(start, 0); // First one is always free.
 
-    open.add(start);
+    open.add(start, heuristicCost(start, end));
+
+    // Neighbors are pushed into the expansion rather than collected in a list, so implementors that
+    // override neighbors(POSITION, Consumer) don't allocate a list for every expanded node.
+    class Expansion implements Consumer<POSITION> {
+      private POSITION current;
+      private int currentCost;
+
+      @Override
+      public void accept(POSITION neighbor) {
+        int neighborScore = currentCost + checkedStepCost(current, neighbor);
+
+        Integer neighborCost = cost.get(neighbor);
+        if (neighborCost != null && neighborScore >= neighborCost) {
+          listener.generated(true);
+          return; // Not a better path.
+        }
+
+        listener.generated(false);
+
+        // A cheaper path re-opens the neighbor, even if it was already evaluated - with weighted
+        // steps, the first path found to a node isn't necessarily the shortest.
+        from.put(neighbor, current);
+        cost.put(neighbor, neighborScore);
+        open.addOrDecreasePriority(neighbor, neighborScore + heuristicCost(neighbor, end));
+      }
+    }
+
+    Expansion expansion = new Expansion();
 
     while (!open.isEmpty()) {
       // Current is the node in open with the lowest score.
@@ -43,37 +84,153 @@ public interface AStar<POSITION> {
         ImmutableList.Builder<POSITION> path = ImmutableList.builder();
         path.add(current);
 
+        int pathCost = cost.get(current);
+        listener.pathState(heuristicCost(current, end), 0);
+
         POSITION position = current;
         while (!position.equals(start)) {
           position = from.get(position);
           path.add(position);
+
+          listener.pathState(heuristicCost(position, end), pathCost - cost.get(position));
         }
 
+        listener.searchFinished(true);
         return path.build().reverse();
       }
 
-      open.remove(current);
-      visited.add(current);
+      listener.expanded(open.size(), cost.size() - open.size());
 
-      for (POSITION neighbor : neighbors(current)) {
-        if (visited.contains(neighbor)) {
-          continue; // Already visited.
-        }
+      expansion.current = current;
+      expansion.currentCost = cost.get(current);
+      neighbors(current, expansion);
+    }
 
-        int neighborScore = cost.get(current) + 1; // TODO: expose actual step distance function.
+    listener.searchFinished(false);
+    throw new IllegalStateException("No path from " + start + " to " + end);
+  }
 
-        if (cost.get(neighbor) != null && neighborScore >= cost.get(neighbor)) {
-          continue; // Not a better path.
-        }
+  /**
+   * Calculates the shortest path between the starting and ending position by searching forward from the
+   * start and backward from the end at the same time, until the searches meet in the middle.  Both positions
+   * must be concrete states that neighbors() and reverseNeighbors() can expand, and end has to equal the
+   * real goal state.
+   *
+   * @param start Starting position
+   * @param end Ending position
+   * @return Shortest path between the two positions
+   */
+  default ImmutableList<POSITION> bidirectionalShortestPath(POSITION start, POSITION end) {
+    return new BidirectionalSearch<>(this, start, end).shortestPath();
+  }
 
-        from.put(neighbor, current);
-        cost.put(neighbor, neighborScore);
-        score.put(neighbor, neighborScore + heuristicCost(neighbor, end));
-        open.add(neighbor);
+  /**
+   * Calculates the shortest path between the starting and ending position using iterative deepening A*,
+   * which only keeps the current path in memory.  This trades time for memory - states are expanded
+   * again in every iteration, and states that are reachable through multiple paths are searched once
+   * per path.  heuristicCost must be admissible.
+   *
+   * @param start Starting position
+   * @param end Ending position
+   * @return Shortest path between the two positions
+   */
+  default ImmutableList<POSITION> iterativeDeepeningShortestPath(POSITION start, POSITION end) {
+    return iterativeDeepeningShortestPath(start, end, 0);
+  }
+
+  /**
+   * Calculates the shortest path between the starting and ending position using iterative deepening A*,
+   * remembering the cost of up to maxRememberedNodes positions so positions that are reachable through
+   * multiple paths aren't searched again.  Memory use is bounded by the node budget plus the length of
+   * the path.
+   *
+   * @param start Starting position
+   * @param end Ending position
+   * @param maxRememberedNodes Maximum number of positions to remember costs for in each iteration
+   * @return Shortest path between the two positions
+   */
+  default ImmutableList<POSITION> iterativeDeepeningShortestPath(POSITION start, POSITION end, int maxRememberedNodes) {
+    return new IterativeDeepeningSearch<>(this, start, end, maxRememberedNodes).shortestPath();
+  }
+
+  /**
+   * Calculates the shortest path between the starting and ending position using hash distributed A*,
+   * which splits the search between the given number of threads.  Each position is owned by one thread,
+   * chosen by its hashCode(), so POSITION's equals() and hashCode() must be consistent.  heuristicCost
+   * must be admissible for the path to be the shortest.
+   *
+   * @param start Starting position
+   * @param end Ending position
+   * @param threads Number of threads to search with
+   * @return Shortest path between the two positions
+   */
+  default ImmutableList<POSITION> parallelShortestPath(POSITION start, POSITION end, int threads) {
+    return new HashDistributedSearch<>(this, start, end, threads).shortestPath();
+  }
+
+  /**
+   * Calculates the cost of the shortest path from the start to each of the targets with a single
+   * Dijkstra sweep, which stops as soon as every target has been reached.  The heuristic isn't used,
+   * since there's no single end to aim for.  Like shortestPath, the sweep only gives up on unreachable
+   * targets once it runs out of positions, so it won't return on infinite graphs with unreachable targets.
+   *
+   * @param start Starting position
+   * @param targets Positions to find the distances to
+   * @return Map of target to the cost of the shortest path to it.  Unreachable targets are left out.
+   */
+  default ImmutableMap<POSITION, Integer> distancesFrom(POSITION start, Collection<POSITION> targets) {
+    Map<POSITION, Integer> cost = new HashMap<>(); // Map of point to the cost of getting to it from the start node
+    IndexedPriorityQueue<POSITION> open = new IndexedPriorityQueue<>(); // Points to evaluate, by lowest cost
+    Set<POSITION> remaining = new HashSet<>(targets); // Targets that haven't been reached yet
+
+    ImmutableMap.Builder<POSITION, Integer> distances = ImmutableMap.builder();
+
+    cost.put(start, 0);
+    open.add(start, 0);
+
+    while (!open.isEmpty() && !remaining.isEmpty()) {
+      // Nodes come out of the queue in order of cost, so current's cost is final.
+      POSITION current = open.poll();
+      int currentCost = cost.get(current);
+
+      if (remaining.remove(current)) {
+        distances.put(current, currentCost);
       }
+
+      neighbors(current, neighbor -> {
+        int neighborCost = currentCost + checkedStepCost(current, neighbor);
+
+        Integer knownCost = cost.get(neighbor);
+        if (knownCost == null || neighborCost < knownCost) {
+          cost.put(neighbor, neighborCost);
+          open.addOrDecreasePriority(neighbor, neighborCost);
+        }
+      });
     }
 
-    throw new IllegalStateException("No path from " + start + " to " + end);
+    return distances.build();
+  }
+
+  /**
+   * Calculates the cost of the shortest path between every pair of landmarks.  Each landmark is the
+   * source of one distancesFrom sweep, and sweeps run in parallel, so neighbors and stepCost have to be
+   * safe to call from multiple threads.
+   *
+   * @param landmarks Positions to find the distances between
+   * @return Matrix where [i][j] is the cost of the shortest path from landmark i to landmark j, or -1 if
+   * landmark j can't be reached from landmark i
+   */
+  default int[][] distancesBetween(List<POSITION> landmarks) {
+    return IntStream.range(0, landmarks.size())
+        .parallel()
+        .mapToObj(i -> {
+          ImmutableMap<POSITION, Integer> distances = distancesFrom(landmarks.get(i), landmarks);
+
+          return landmarks.stream()
+              .mapToInt(landmark -> distances.getOrDefault(landmark, -1))
+              .toArray();
+        })
+        .toArray(int[][]::new);
   }
 
   /**
@@ -88,13 +245,81 @@ public interface AStar<POSITION> {
    */
   int heuristicCost(POSITION from, POSITION to);
 
+  /**
+   * Returns the cost of stepping from the 'from' position to the neighboring 'to' position.
+   * Defaults to 1, which makes every step cost the same.  Step costs must not be negative.
+   *
+   * @param from Position the step starts at
+   * @param to   Neighbor of 'from' that the step ends at
+   * @return Cost of the step
+   */
+  default int stepCost(POSITION from, POSITION to) {
+    return 1;
+  }
+
+  /**
+   * Returns stepCost(from, to), making sure that it's not negative.  A* can't find shortest paths
+   * in graphs with negative step costs.
+   *
+   * @param from Position the step starts at
+   * @param to   Neighbor of 'from' that the step ends at
+   * @return Cost of the step
+   */
+  default int checkedStepCost(POSITION from, POSITION to) {
+    int stepCost = stepCost(from, to);
+
+    if (stepCost < 0) {
+      throw new IllegalArgumentException("Negative step cost " + stepCost + " from " + from + " to " + to);
+    }
+
+    return stepCost;
+  }
+
   /**
    * Returns a list of valid neighbors from the given position.  shortestPath
-   * will filter positions that have already been visited, so neighbors
-   * should return all valid neighbors, even if they've already been visited.
+   * will filter positions that have already been reached by a path that's at least as cheap,
+   * so neighbors should return all valid neighbors, even if they've already been visited.
    *
    * @param position Position to calculate neighbors for
    * @return List of valid neighbors of the given position.
    */
   ImmutableList<POSITION> neighbors(POSITION position);
+
+  /**
+   * Passes each valid neighbor of the given position to the neighbors consumer.  Searches call this
+   * instead of neighbors(POSITION), so implementors can override it to avoid building a list for
+   * every position the search expands.  Defaults to passing along the elements of neighbors(POSITION).
+   *
+   * @param position Position to calculate neighbors for
+   * @param neighbors Consumer that accepts each valid neighbor of the given position
+   */
+  default void neighbors(POSITION position, Consumer<POSITION> neighbors) {
+    neighbors(position).forEach(neighbors);
+  }
+
+  /**
+   * Returns a list of positions that have the given position as a neighbor, which bidirectional searches
+   * use to search backward from the end.  Defaults to neighbors(), which is correct for problems where
+   * every step can be reversed.  Problems where it isn't have to override both forms of reverseNeighbors.
+   *
+   * @param position Position to calculate reverse neighbors for
+   * @return List of positions that can step to the given position.
+   */
+  default ImmutableList<POSITION> reverseNeighbors(POSITION position) {
+    return neighbors(position);
+  }
+
+  /**
+   * Passes each position that has the given position as a neighbor to the neighbors consumer.  Bidirectional
+   * searches call this instead of reverseNeighbors(POSITION).  Defaults to neighbors(POSITION, Consumer),
+   * which is correct for problems where every step can be reversed and doesn't build a list for every
+   * position the backward search expands.  Problems where it isn't have to override this as well as
+   * reverseNeighbors(POSITION).
+   *
+   * @param position  Position to calculate reverse neighbors for
+   * @param neighbors Consumer that accepts each position that can step to the given position
+   */
+  default void reverseNeighbors(POSITION position, Consumer<POSITION> neighbors) {
+    neighbors(position, neighbors);
+  }
 }
@@ -0,0 +1,135 @@
+package dev.adventofcode2016.algorithms;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bidirectional A* search.  One frontier searches forward from the start and the other searches
+ * backward from the end, and the shortest path is found where they meet.  Each frontier only has
+ * to explore about half of the path's depth, which is a big savings when the number of states
+ * grows quickly with distance.
+ *
+ * The search keeps track of the cheapest path through any state both frontiers have reached.  The lowest
+ * score in either frontier is a lower bound on the cost of any path that hasn't been found yet, so the
+ * search stops once that bound reaches the cost of the cheapest path.
+ *
+ * @param <POSITION> position type
+ */
+class BidirectionalSearch<POSITION> {
+
+  /** One direction of the search. */
+  private final class Frontier {
+    private final boolean forward;
+    private final Map<POSITION, Integer> cost = new HashMap<>(); // Map of position to its cost from this frontier's origin
+    private final Map<POSITION, POSITION> from = new HashMap<>(); // Map of position to the previous position toward the origin
+    private final IndexedPriorityQueue<POSITION> open = new IndexedPriorityQueue<>();
+
+    private Frontier(boolean forward, POSITION origin) {
+      this.forward = forward;
+
+      cost.put(origin, 0);
+      open.add(origin, heuristicCost(origin));
+    }
+
+    /** Estimates the cost of the rest of a path through the position, from the position to the other origin. */
+    private int heuristicCost(POSITION position) {
+      return forward ? search.heuristicCost(position, end) : search.heuristicCost(start, position);
+    }
+
+    private void neighbors(POSITION position, Consumer<POSITION> neighbors) {
+      if (forward) {
+        search.neighbors(position, neighbors);
+      } else {
+        search.reverseNeighbors(position, neighbors);
+      }
+    }
+
+    /** Returns the cost of the step between position and neighbor in the direction of the original search. */
+    private int stepCost(POSITION position, POSITION neighbor) {
+      return forward ? search.checkedStepCost(position, neighbor) : search.checkedStepCost(neighbor, position);
+    }
+  }
+
+  private final AStar<POSITION> search;
+  private final POSITION start;
+  private final POSITION end;
+
+  private int bestCost = Integer.MAX_VALUE; // Cost of the cheapest path found so far.
+  private POSITION meeting = null; // Position where the frontiers meet on the cheapest path.
+
+  BidirectionalSearch(AStar<POSITION> search, POSITION start, POSITION end) {
+    this.search = search;
+    this.start = start;
+    this.end = end;
+  }
+
+  ImmutableList<POSITION> shortestPath() {
+    if (start.equals(end)) {
+      return ImmutableList.of(start);
+    }
+
+    Frontier forward = new Frontier(true, start);
+    Frontier backward = new Frontier(false, end);
+
+    while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+      int lowerBound = Math.max(forward.open.peekPriority(), backward.open.peekPriority());
+      if (lowerBound >= bestCost) {
+        break; // Neither frontier can find a cheaper path.
+      }
+
+      // Expand the smaller frontier, which keeps the two frontiers balanced.
+      if (forward.open.size() <= backward.open.size()) {
+        expand(forward, backward);
+      } else {
+        expand(backward, forward);
+      }
+    }
+
+    if (meeting == null) {
+      throw new IllegalStateException("No path from " + start + " to " + end);
+    }
+
+    ImmutableList.Builder<POSITION> startToMeeting = ImmutableList.builder();
+    for (POSITION position = meeting; !position.equals(start); position = forward.from.get(position)) {
+      startToMeeting.add(position);
+    }
+    startToMeeting.add(start);
+
+    ImmutableList.Builder<POSITION> path = ImmutableList.builder();
+    path.addAll(startToMeeting.build().reverse());
+
+    for (POSITION position = meeting; !position.equals(end); ) {
+      position = backward.from.get(position);
+      path.add(position);
+    }
+
+    return path.build();
+  }
+
+  private void expand(Frontier frontier, Frontier other) {
+    POSITION current = frontier.open.poll();
+    int currentCost = frontier.cost.get(current);
+
+    frontier.neighbors(current, neighbor -> {
+      int neighborCost = currentCost + frontier.stepCost(current, neighbor);
+
+      Integer knownCost = frontier.cost.get(neighbor);
+      if (knownCost != null && neighborCost >= knownCost) {
+        return; // Not a better path.
+      }
+
+      frontier.from.put(neighbor, current);
+      frontier.cost.put(neighbor, neighborCost);
+      frontier.open.addOrDecreasePriority(neighbor, neighborCost + frontier.heuristicCost(neighbor));
+
+      Integer otherCost = other.cost.get(neighbor);
+      if (otherCost != null && neighborCost + otherCost < bestCost) {
+        bestCost = neighborCost + otherCost;
+        meeting = neighbor;
+      }
+    });
+  }
+}
@@ -0,0 +1,210 @@
+package dev.adventofcode2016.algorithms;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hash distributed A* (HDA*).  Positions are partitioned between worker threads by their hash code.  Each
+ * worker owns the costs and open set for its positions, and sends the neighbors it generates to their
+ * owners through lock-free queues, so workers never share a data structure that needs locking.
+ *
+ * Workers expand positions out of order relative to each other, so the first path found to the end isn't
+ * necessarily the shortest.  The cost of the best path found so far is shared between workers, and
+ * positions are only expanded while their score is lower than it.  The search is over once every worker
+ * is out of positions that could lead to a cheaper path and no messages are in flight, at which point
+ * the best path is the shortest.
+ *
+ * http://metahack.org/hda-aaai09.pdf
+ *
+ * @param <POSITION> position type
+ */
+class HashDistributedSearch<POSITION> {
+
+  /** Message from one worker to another about a path to a position. */
+  private static final class Message<POSITION> {
+    private final POSITION position;
+    private final POSITION parent; // Null for the start.
+    private final int cost;
+
+    private Message(POSITION position, POSITION parent, int cost) {
+      this.position = position;
+      this.parent = parent;
+      this.cost = cost;
+    }
+  }
+
+  private final class Worker {
+    private final Queue<Message<POSITION>> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<POSITION, Integer> cost = new HashMap<>(); // Map of owned position to its cost from the start
+    private final Map<POSITION, POSITION> from = new HashMap<>(); // Map of owned position to the position it can most efficiently be reached from
+    private final IndexedPriorityQueue<POSITION> open = new IndexedPriorityQueue<>();
+
+    private boolean active = false; // Whether this worker counts toward outstandingWork.
+
+    private void run() {
+      while (!done) {
+        Message<POSITION> message = inbox.poll();
+
+        if (message != null) {
+          activate();
+          receive(message);
+          outstandingWork.decrementAndGet(); // The message has been handled.
+        } else if (!open.isEmpty() && open.peekPriority() < bestCost) {
+          activate();
+          expand();
+        } else {
+          if (active) {
+            active = false;
+            outstandingWork.decrementAndGet();
+          }
+
+          if (outstandingWork.get() == 0) {
+            done = true;
+          } else {
+            Thread.yield();
+          }
+        }
+      }
+    }
+
+    private void activate() {
+      if (!active) {
+        active = true;
+        outstandingWork.incrementAndGet();
+      }
+    }
+
+    private void receive(Message<POSITION> message) {
+      Integer knownCost = cost.get(message.position);
+      if (knownCost != null && message.cost >= knownCost) {
+        return; // Not a better path.
+      }
+
+      cost.put(message.position, message.cost);
+      from.put(message.position, message.parent);
+
+      if (message.position.equals(end)) {
+        offerGoal(message.position, message.cost);
+        return;
+      }
+
+      int score = message.cost + search.heuristicCost(message.position, end);
+      if (score < bestCost) {
+        open.addOrDecreasePriority(message.position, score);
+      }
+    }
+
+    private void expand() {
+      POSITION current = open.poll();
+      int currentCost = cost.get(current);
+
+      search.neighbors(current, neighbor -> {
+        int neighborCost = currentCost + search.checkedStepCost(current, neighbor);
+
+        if (neighborCost + search.heuristicCost(neighbor, end) < bestCost) {
+          send(new Message<>(neighbor, current, neighborCost));
+        }
+      });
+    }
+  }
+
+  private final AStar<POSITION> search;
+  private final POSITION start;
+  private final POSITION end;
+  private final List<Worker> workers = new ArrayList<>();
+
+  // Number of active workers plus the number of messages that haven't been handled.  A worker becomes active
+  // before it handles a message, so this only reaches 0 when there's no work left anywhere.
+  private final AtomicLong outstandingWork = new AtomicLong();
+  private volatile boolean done = false;
+
+  private volatile int bestCost = Integer.MAX_VALUE; // Cost of the cheapest path to the end found so far.
+  private POSITION goal = null; // End position on the cheapest path, guarded by this.
+
+  HashDistributedSearch(AStar<POSITION> search, POSITION start, POSITION end, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Can't search with " + threads + " threads.");
+    }
+
+    this.search = search;
+    this.start = start;
+    this.end = end;
+
+    for (int i = 0; i < threads; i ++) {
+      workers.add(new Worker());
+    }
+  }
+
+  ImmutableList<POSITION> shortestPath() {
+    send(new Message<>(start, null, 0));
+
+    ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (Worker worker : workers) {
+        futures.add(executor.submit(() -> {
+          try {
+            worker.run();
+          } catch (RuntimeException | Error e) {
+            done = true; // Stop the other workers, which would otherwise wait for this one forever.
+            throw e;
+          }
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      done = true;
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while searching for a path from " + start + " to " + end, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Search for a path from " + start + " to " + end + " failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (goal == null) {
+      throw new IllegalStateException("No path from " + start + " to " + end);
+    }
+
+    ImmutableList.Builder<POSITION> path = ImmutableList.builder();
+    for (POSITION position = goal; position != null; position = owner(position).from.get(position)) {
+      path.add(position);
+    }
+
+    return path.build().reverse();
+  }
+
+  private synchronized void offerGoal(POSITION position, int cost) {
+    if (cost < bestCost) {
+      bestCost = cost;
+      goal = position;
+    }
+  }
+
+  private void send(Message<POSITION> message) {
+    outstandingWork.incrementAndGet(); // Counted before it's visible, so the work count can't drop to 0 early.
+    owner(message.position).inbox.add(message);
+  }
+
+  private Worker owner(POSITION position) {
+    int hash = position.hashCode() * 0x9E3779B9; // Spread the hash, so similar positions end up on different workers.
+    return workers.get(Math.floorMod(hash ^ (hash >>> 16), workers.size()));
+  }
+}
@@ -0,0 +1,151 @@
+package dev.adventofcode2016.algorithms;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Held-Karp dynamic programming algorithm for the traveling salesman problem.  Finds the cheapest route
+ * that visits every location in O(2^n * n^2) time instead of trying all n! orders.
+ *
+ * For each subset of locations (a bitmask) and each location in the subset, the algorithm computes the
+ * cheapest route that starts at the starting location, visits every location in the subset, and ends at
+ * that location.  Subsets with k + 1 locations only depend on subsets with k locations, so each layer of
+ * subsets is computed in parallel.  The subsets in a layer are enumerated directly with Gosper's hack.
+ *
+ * https://en.wikipedia.org/wiki/Held%E2%80%93Karp_algorithm
+ */
+public class HeldKarp {
+  private static final int UNREACHABLE = Integer.MAX_VALUE;
+  // The cost table has 2^n * n ints, which is 80MB at 20 locations and grows more than 2x per location.
+  private static final int MAX_LOCATIONS = 20;
+
+  private HeldKarp() {}
+
+  /**
+   * Calculates the cost of the cheapest route that starts at the start location and visits every location.
+   *
+   * @param distances     Matrix where [i][j] is the cost of traveling from location i to location j, or a
+   *                      negative number if j can't be reached from i
+   * @param start         Index of the starting location
+   * @param returnToStart Whether the route has to end at the starting location
+   * @return Cost of the cheapest route
+   * @throws IllegalArgumentException if there are no locations or too many, or start isn't one of them
+   * @throws IllegalStateException if there's no route that visits every location
+   */
+  public static int shortestRoute(int[][] distances, int start, boolean returnToStart) {
+    int locations = distances.length;
+
+    if (locations == 0) {
+      throw new IllegalArgumentException("Can't route between 0 locations.");
+    }
+
+    if (locations > MAX_LOCATIONS) {
+      throw new IllegalArgumentException("Can't route between more than " + MAX_LOCATIONS + " locations.");
+    }
+
+    if (start < 0 || start >= locations) {
+      throw new IllegalArgumentException("Start " + start + " isn't one of the " + locations + " locations.");
+    }
+
+    // cost[mask * locations + last] is the cheapest route from start that visits the locations in mask,
+    // ending at last.  Flattened into one array to keep it compact.
+    int[] cost = new int[(1 << locations) * locations];
+    Arrays.fill(cost, UNREACHABLE);
+    cost[(1 << start) * locations + start] = 0;
+
+    for (int size = 2; size <= locations; size ++) {
+      IntStream.of(subsetsContaining(locations, size, start))
+          .parallel()
+          .forEach(mask -> {
+            for (int last = 0; last < locations; last ++) {
+              if (last == start || (mask & 1 << last) == 0) {
+                continue;
+              }
+
+              cost[mask * locations + last] = cheapestEndingAt(cost, distances, mask, last);
+            }
+          });
+    }
+
+    int all = (1 << locations) - 1;
+    int best = UNREACHABLE;
+
+    for (int last = 0; last < locations; last ++) {
+      int routeCost = cost[all * locations + last];
+
+      if (returnToStart && routeCost != UNREACHABLE) {
+        routeCost = add(routeCost, distances[last][start]);
+      }
+
+      best = Math.min(best, routeCost);
+    }
+
+    if (best == UNREACHABLE) {
+      throw new IllegalStateException("No route visits all of the locations.");
+    }
+
+    return best;
+  }
+
+  /**
+   * Returns every subset of size locations that contains start, as bitmasks.  The other size - 1 locations
+   * are enumerated in increasing order with Gosper's hack, which steps straight from one combination of
+   * bits to the next without visiting masks of other sizes.  The start bit is then spliced in.
+   *
+   * See HAKMEM item 175.
+   */
+  private static int[] subsetsContaining(int locations, int size, int start) {
+    int others = locations - 1;
+    int below = (1 << start) - 1; // Locations below start keep their bits, and the rest move up past it.
+
+    int[] subsets = new int[binomial(others, size - 1)];
+    int count = 0;
+
+    for (int combination = (1 << (size - 1)) - 1; combination < 1 << others; ) {
+      subsets[count ++] = (combination & below) | (combination & ~below) << 1 | 1 << start;
+
+      int lowest = combination & -combination;
+      int ripple = combination + lowest;
+      combination = (((ripple ^ combination) >>> 2) / lowest) | ripple;
+    }
+
+    return subsets;
+  }
+
+  private static int binomial(int n, int k) {
+    long result = 1;
+    for (int i = 1; i <= k; i ++) {
+      result = result * (n - k + i) / i;
+    }
+
+    return (int) result;
+  }
+
+  /**
+   * Returns the cheapest route that visits every location in mask, ending at last, by extending the cheapest
+   * routes that visit every location in mask except for last.
+   */
+  private static int cheapestEndingAt(int[] cost, int[][] distances, int mask, int last) {
+    int locations = distances.length;
+    int previousMask = mask & ~(1 << last);
+    int best = UNREACHABLE;
+
+    for (int previous = 0; previous < locations; previous ++) {
+      if ((previousMask & 1 << previous) == 0) {
+        continue;
+      }
+
+      int previousCost = cost[previousMask * locations + previous];
+      if (previousCost != UNREACHABLE) {
+        best = Math.min(best, add(previousCost, distances[previous][last]));
+      }
+    }
+
+    return best;
+  }
+
+  /** Adds a step to a route cost, where negative step distances are unreachable. */
+  private static int add(int routeCost, int distance) {
+    return distance < 0 ? UNREACHABLE : routeCost + distance;
+  }
+}
@@ -0,0 +1,222 @@
+package dev.adventofcode2016.algorithms;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of elements with int priorities that supports changing the priority of an element that's
+ * already in the queue.  Each element has a handle that tracks its slot in the heap, so contains and
+ * decreasePriority don't have to scan the queue, and priorities are stored unboxed.  ELEMENT should
+ * implement equals() and hashCode().
+ *
+ * https://en.wikipedia.org/wiki/Binary_heap
+ *
+ * @param <ELEMENT> element type
+ */
+public class IndexedPriorityQueue<ELEMENT> {
+
+  /** Handle for an element in the queue, which knows its priority and position in the heap. */
+  private static final class Handle<ELEMENT> {
+    private final ELEMENT element;
+    private int priority;
+    private int slot;
+
+    private Handle(ELEMENT element, int priority, int slot) {
+      this.element = element;
+      this.priority = priority;
+      this.slot = slot;
+    }
+  }
+
+  private final Map<ELEMENT, Handle<ELEMENT>> handles = new HashMap<>();
+  private Handle<ELEMENT>[] heap;
+  private int size = 0;
+
+  public IndexedPriorityQueue() {
+    this(16);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public IndexedPriorityQueue(int initialCapacity) {
+    this.heap = new Handle[Math.max(1, initialCapacity)];
+  }
+
+  /**
+   * Adds the element to the queue with the given priority.
+   *
+   * @param element  Element to add
+   * @param priority Priority of the element.  Lower priorities are polled first.
+   * @throws IllegalArgumentException if the element is already in the queue
+   */
+  public void add(ELEMENT element, int priority) {
+    if (handles.containsKey(element)) {
+      throw new IllegalArgumentException(element + " is already in the queue.");
+    }
+
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+
+    Handle<ELEMENT> handle = new Handle<>(element, priority, size);
+    handles.put(element, handle);
+    heap[size++] = handle;
+
+    siftUp(handle);
+  }
+
+  /**
+   * Lowers the priority of an element that's already in the queue.
+   *
+   * @param element  Element to update
+   * @param priority New priority of the element, which must not be higher than its current priority
+   * @throws NoSuchElementException   if the element isn't in the queue
+   * @throws IllegalArgumentException if the priority is higher than the element's current priority
+   */
+  public void decreasePriority(ELEMENT element, int priority) {
+    Handle<ELEMENT> handle = handles.get(element);
+
+    if (handle == null) {
+      throw new NoSuchElementException(element + " is not in the queue.");
+    }
+
+    if (priority > handle.priority) {
+      throw new IllegalArgumentException("Priority of " + element + " can't increase from "
+          + handle.priority + " to " + priority);
+    }
+
+    handle.priority = priority;
+    siftUp(handle);
+  }
+
+  /**
+   * Adds the element to the queue if it's not already in it, or lowers its priority if the given
+   * priority is lower than its current priority.
+   *
+   * @param element  Element to add or update
+   * @param priority Priority of the element
+   * @return Whether the queue changed
+   */
+  public boolean addOrDecreasePriority(ELEMENT element, int priority) {
+    Handle<ELEMENT> handle = handles.get(element);
+
+    if (handle == null) {
+      add(element, priority);
+      return true;
+    }
+
+    if (priority >= handle.priority) {
+      return false;
+    }
+
+    handle.priority = priority;
+    siftUp(handle);
+    return true;
+  }
+
+  /**
+   * Removes the element with the lowest priority from the queue and returns it.
+   *
+   * @return Element with the lowest priority
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public ELEMENT poll() {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty.");
+    }
+
+    Handle<ELEMENT> first = heap[0];
+    handles.remove(first.element);
+
+    Handle<ELEMENT> last = heap[--size];
+    heap[size] = null;
+
+    if (size > 0) {
+      last.slot = 0;
+      heap[0] = last;
+      siftDown(last);
+    }
+
+    return first.element;
+  }
+
+  /**
+   * Returns the lowest priority in the queue without removing its element.
+   *
+   * @return Lowest priority in the queue
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public int peekPriority() {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty.");
+    }
+
+    return heap[0].priority;
+  }
+
+  /**
+   * Returns whether the element is in the queue.
+   *
+   * @param element Element to check
+   * @return Whether the element is in the queue
+   */
+  public boolean contains(ELEMENT element) {
+    return handles.containsKey(element);
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private void siftUp(Handle<ELEMENT> handle) {
+    int slot = handle.slot;
+
+    while (slot > 0) {
+      int parentSlot = (slot - 1) >>> 1;
+      Handle<ELEMENT> parent = heap[parentSlot];
+
+      if (parent.priority <= handle.priority) {
+        break;
+      }
+
+      heap[slot] = parent;
+      parent.slot = slot;
+      slot = parentSlot;
+    }
+
+    heap[slot] = handle;
+    handle.slot = slot;
+  }
+
+  private void siftDown(Handle<ELEMENT> handle) {
+    int slot = handle.slot;
+    int half = size >>> 1; // Slots at or after half are leaves.
+
+    while (slot < half) {
+      int childSlot = 2 * slot + 1;
+      Handle<ELEMENT> child = heap[childSlot];
+
+      int rightSlot = childSlot + 1;
+      if (rightSlot < size && heap[rightSlot].priority < child.priority) {
+        childSlot = rightSlot;
+        child = heap[rightSlot];
+      }
+
+      if (handle.priority <= child.priority) {
+        break;
+      }
+
+      heap[slot] = child;
+      child.slot = slot;
+      slot = childSlot;
+    }
+
+    heap[slot] = handle;
+    handle.slot = slot;
+  }
+}
@@ -0,0 +1,173 @@
+package dev.adventofcode2016.algorithms;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A* searching algorithm for problems whose states can be encoded as ints.  This is the primitive
+ * counterpart of AStar - implementors pack each state into an int, and the search keeps its costs,
+ * paths, and open set in primitive collections instead of allocating objects for every state.
+ * Two states are the same if their encodings are equal.
+ *
+ * https://en.wikipedia.org/wiki/A*_search_algorithm
+ */
+public interface IntAStar {
+
+  /**
+   * Calculates the shortest path between the starting and ending state.
+   *
+   * @param start Starting state
+   * @param end   Ending state
+   * @return States along the shortest path between the two states, including start and end
+   */
+  default int[] shortestPath(int start, int end) {
+    return shortestPath(start, end, SearchListener.NONE);
+  }
+
+  /**
+   * Calculates the shortest path between the starting and ending state, reporting the search's progress
+   * to the listener.
+   *
+   * @param start    Starting state
+   * @param end      Ending state
+   * @param listener Listener to report search events to, such as SearchStatistics
+   * @return States along the shortest path between the two states, including start and end
+   */
+  default int[] shortestPath(int start, int end, SearchListener listener) {
+    IntIntMap cost = new IntIntMap(); // Map of state to the cost of getting to it from the start state
+    IntIntMap from = new IntIntMap(); // Map of state to the state it can most efficiently be reached from
+    // States to be evaluated, prioritized by the lowest score - the total cost of getting from the start
+    // to the end passing through the state.  Part known, part heuristic.
+    IntPriorityQueue open = new IntPriorityQueue();
+
+    listener.searchStarted();
+
+    cost.put(start, 0); // First one is always free.
+    open.addOrDecreasePriority(start, heuristicCost(start, end));
+
+    // Neighbors are pushed into the expansion rather than returned in a list, so expanding a state
+    // doesn't allocate anything.
+    class Expansion implements IntConsumer {
+      private int current;
+      private int currentCost;
+
+      @Override
+      public void accept(int neighbor) {
+        int stepCost = stepCost(current, neighbor);
+        if (stepCost < 0) {
+          throw new IllegalArgumentException("Negative step cost " + stepCost + " from " + current + " to " + neighbor);
+        }
+
+        int neighborScore = currentCost + stepCost;
+        if (neighborScore >= cost.get(neighbor, Integer.MAX_VALUE)) {
+          listener.generated(true);
+          return; // Not a better path.
+        }
+
+        listener.generated(false);
+
+        from.put(neighbor, current);
+        cost.put(neighbor, neighborScore);
+        open.addOrDecreasePriority(neighbor, neighborScore + heuristicCost(neighbor, end));
+      }
+    }
+
+    Expansion expansion = new Expansion();
+
+    while (!open.isEmpty()) {
+      // Current is the state in open with the lowest score.
+      int current = open.poll();
+
+      if (current == end) {
+        int[] path = new int[16];
+        int length = 0;
+
+        path[length++] = current;
+        for (int state = current; state != start; ) {
+          state = from.get(state, start);
+
+          if (length == path.length) {
+            path = Arrays.copyOf(path, length * 2);
+          }
+          path[length++] = state;
+        }
+
+        int pathCost = cost.get(current, 0);
+        int[] reversed = new int[length];
+        for (int i = 0; i < length; i ++) {
+          reversed[i] = path[length - i - 1];
+          listener.pathState(heuristicCost(path[i], end), pathCost - cost.get(path[i], 0));
+        }
+
+        listener.searchFinished(true);
+        return reversed;
+      }
+
+      listener.expanded(open.size(), cost.size() - open.size());
+
+      expansion.current = current;
+      expansion.currentCost = cost.get(current, 0);
+      neighbors(current, expansion);
+    }
+
+    listener.searchFinished(false);
+    throw new IllegalStateException("No path from " + start + " to " + end);
+  }
+
+  /**
+   * Calculates the shortest path between the starting and ending state by searching forward from the start
+   * and backward from the end at the same time, until the searches meet in the middle.
+   *
+   * @param start Starting state
+   * @param end   Ending state
+   * @return States along the shortest path between the two states, including start and end
+   * @see AStar#bidirectionalShortestPath(Object, Object)
+   */
+  default int[] bidirectionalShortestPath(int start, int end) {
+    return new IntBidirectionalSearch(this, start, end).shortestPath();
+  }
+
+  /**
+   * Calculates a naive cost of getting from the 'from' state to the 'to' state.  The cost should be
+   * less than or equal to the actual cost of traveling between the two states so A* will converge.
+   *
+   * @param from Starting state
+   * @param to   Ending state
+   * @return Cost of traveling between the two states
+   */
+  int heuristicCost(int from, int to);
+
+  /**
+   * Returns the cost of stepping from the 'from' state to the neighboring 'to' state.  Defaults to 1,
+   * which makes every step cost the same.  Step costs must not be negative.
+   *
+   * @param from State the step starts at
+   * @param to   Neighbor of 'from' that the step ends at
+   * @return Cost of the step
+   */
+  default int stepCost(int from, int to) {
+    return 1;
+  }
+
+  /**
+   * Passes each valid neighbor of the given state to the neighbors consumer.  shortestPath will filter
+   * states that have already been reached by a path that's at least as cheap, so all valid neighbors
+   * should be passed along, even if they've already been visited.
+   *
+   * @param state     State to calculate neighbors for
+   * @param neighbors Consumer that accepts each valid neighbor of the state
+   */
+  void neighbors(int state, IntConsumer neighbors);
+
+  /**
+   * Passes each state that has the given state as a neighbor to the neighbors consumer, which bidirectional
+   * searches use to search backward from the end.  Defaults to neighbors(), which is correct for problems
+   * where every step can be reversed.
+   *
+   * @param state     State to calculate reverse neighbors for
+   * @param neighbors Consumer that accepts each state that can step to the given state
+   */
+  default void reverseNeighbors(int state, IntConsumer neighbors) {
+    neighbors(state, neighbors);
+  }
+}
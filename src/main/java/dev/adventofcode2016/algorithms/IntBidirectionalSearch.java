@@ -0,0 +1,137 @@
+package dev.adventofcode2016.algorithms;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Bidirectional A* search over int-encoded states.  This is the primitive counterpart of
+ * BidirectionalSearch - see that class for how the frontiers meet and when the search stops.
+ */
+class IntBidirectionalSearch {
+
+  /** One direction of the search, which also accepts the neighbors of the state it's expanding. */
+  private final class Frontier implements IntConsumer {
+    private final boolean forward;
+    private final IntIntMap cost = new IntIntMap(); // Map of state to its cost from this frontier's origin
+    private final IntIntMap from = new IntIntMap(); // Map of state to the previous state toward the origin
+    private final IntPriorityQueue open = new IntPriorityQueue();
+
+    private Frontier other;
+    private int current;
+    private int currentCost;
+
+    private Frontier(boolean forward, int origin) {
+      this.forward = forward;
+
+      cost.put(origin, 0);
+      open.addOrDecreasePriority(origin, heuristicCost(origin));
+    }
+
+    private int heuristicCost(int state) {
+      return forward ? search.heuristicCost(state, end) : search.heuristicCost(start, state);
+    }
+
+    private void expand() {
+      current = open.poll();
+      currentCost = cost.get(current, 0);
+
+      if (forward) {
+        search.neighbors(current, this);
+      } else {
+        search.reverseNeighbors(current, this);
+      }
+    }
+
+    @Override
+    public void accept(int neighbor) {
+      int stepCost = forward ? search.stepCost(current, neighbor) : search.stepCost(neighbor, current);
+      if (stepCost < 0) {
+        throw new IllegalArgumentException("Negative step cost " + stepCost + " between " + current + " and " + neighbor);
+      }
+
+      int neighborCost = currentCost + stepCost;
+      if (neighborCost >= cost.get(neighbor, Integer.MAX_VALUE)) {
+        return; // Not a better path.
+      }
+
+      from.put(neighbor, current);
+      cost.put(neighbor, neighborCost);
+      open.addOrDecreasePriority(neighbor, neighborCost + heuristicCost(neighbor));
+
+      int otherCost = other.cost.get(neighbor, -1);
+      if (otherCost != -1 && neighborCost + otherCost < bestCost) {
+        bestCost = neighborCost + otherCost;
+        meeting = neighbor;
+        hasMet = true;
+      }
+    }
+  }
+
+  private final IntAStar search;
+  private final int start;
+  private final int end;
+
+  private int bestCost = Integer.MAX_VALUE; // Cost of the cheapest path found so far.
+  private int meeting; // State where the frontiers meet on the cheapest path.
+  private boolean hasMet = false;
+
+  IntBidirectionalSearch(IntAStar search, int start, int end) {
+    this.search = search;
+    this.start = start;
+    this.end = end;
+  }
+
+  int[] shortestPath() {
+    if (start == end) {
+      return new int[]{start};
+    }
+
+    Frontier forward = new Frontier(true, start);
+    Frontier backward = new Frontier(false, end);
+    forward.other = backward;
+    backward.other = forward;
+
+    while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+      int lowerBound = Math.max(forward.open.peekPriority(), backward.open.peekPriority());
+      if (lowerBound >= bestCost) {
+        break; // Neither frontier can find a cheaper path.
+      }
+
+      // Expand the smaller frontier, which keeps the two frontiers balanced.
+      if (forward.open.size() <= backward.open.size()) {
+        forward.expand();
+      } else {
+        backward.expand();
+      }
+    }
+
+    if (!hasMet) {
+      throw new IllegalStateException("No path from " + start + " to " + end);
+    }
+
+    int startToMeeting = 0;
+    for (int state = meeting; state != start; state = forward.from.get(state, start)) {
+      startToMeeting++;
+    }
+
+    int meetingToEnd = 0;
+    for (int state = meeting; state != end; state = backward.from.get(state, end)) {
+      meetingToEnd++;
+    }
+
+    int[] path = new int[startToMeeting + meetingToEnd + 1];
+
+    int index = startToMeeting;
+    for (int state = meeting; state != start; state = forward.from.get(state, start)) {
+      path[index--] = state;
+    }
+    path[0] = start;
+
+    index = startToMeeting;
+    for (int state = meeting; state != end; ) {
+      state = backward.from.get(state, end);
+      path[++index] = state;
+    }
+
+    return path;
+  }
+}
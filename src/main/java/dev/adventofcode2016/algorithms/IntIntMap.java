@@ -0,0 +1,194 @@
+package dev.adventofcode2016.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Map of int keys to int values that stores entries in flat arrays using open addressing with
+ * linear probing, so lookups don't box keys or values and entries aren't allocated.
+ *
+ * https://en.wikipedia.org/wiki/Open_addressing
+ */
+public class IntIntMap {
+  private static final int FREE_KEY = 0; // Marks an empty slot.  The key 0 is stored outside the table.
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private int[] keys;
+  private int[] values;
+  private int mask;
+  private int size = 0; // Entries in the table, not counting the 0 key.
+  private int resizeAt;
+
+  private boolean hasFreeKey = false;
+  private int freeKeyValue;
+
+  public IntIntMap() {
+    this(16);
+  }
+
+  public IntIntMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    allocate(capacity);
+  }
+
+  /**
+   * Returns the value for the given key, or defaultValue if the map doesn't contain the key.
+   *
+   * @param key          Key to look up
+   * @param defaultValue Value to return if the key isn't in the map
+   * @return Value of the key, or defaultValue
+   */
+  public int get(int key, int defaultValue) {
+    if (key == FREE_KEY) {
+      return hasFreeKey ? freeKeyValue : defaultValue;
+    }
+
+    int slot = slot(key);
+    while (keys[slot] != FREE_KEY) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    return defaultValue;
+  }
+
+  /**
+   * Returns whether the map contains the given key.
+   *
+   * @param key Key to check
+   * @return Whether the map contains the key
+   */
+  public boolean containsKey(int key) {
+    if (key == FREE_KEY) {
+      return hasFreeKey;
+    }
+
+    int slot = slot(key);
+    while (keys[slot] != FREE_KEY) {
+      if (keys[slot] == key) {
+        return true;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    return false;
+  }
+
+  /**
+   * Associates the value with the given key, replacing any existing value.
+   *
+   * @param key   Key
+   * @param value Value
+   */
+  public void put(int key, int value) {
+    if (key == FREE_KEY) {
+      hasFreeKey = true;
+      freeKeyValue = value;
+      return;
+    }
+
+    int slot = slot(key);
+    while (keys[slot] != FREE_KEY) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    keys[slot] = key;
+    values[slot] = value;
+
+    if (++size >= resizeAt) {
+      rehash(keys.length * 2);
+    }
+  }
+
+  /**
+   * Removes the given key from the map.
+   *
+   * @param key Key to remove
+   */
+  public void remove(int key) {
+    if (key == FREE_KEY) {
+      hasFreeKey = false;
+      return;
+    }
+
+    int slot = slot(key);
+    while (keys[slot] != key) {
+      if (keys[slot] == FREE_KEY) {
+        return; // Not in the map.
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    // Backward-shift deletion: move later entries in the probe sequence into the hole so lookups
+    // don't stop early at the removed slot.
+    int hole = slot;
+    slot = (slot + 1) & mask;
+    while (keys[slot] != FREE_KEY) {
+      int home = slot(keys[slot]);
+
+      // Move the entry if its home slot isn't cyclically between the hole and its current slot.
+      if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+        keys[hole] = keys[slot];
+        values[hole] = values[slot];
+        hole = slot;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    keys[hole] = FREE_KEY;
+    size--;
+  }
+
+  /** Removes all of the entries from the map, keeping its capacity. */
+  public void clear() {
+    Arrays.fill(keys, FREE_KEY);
+    size = 0;
+    hasFreeKey = false;
+  }
+
+  public int size() {
+    return hasFreeKey ? size + 1 : size;
+  }
+
+  private int slot(int key) {
+    // Fibonacci hashing mixes the bits of the key, so runs of nearby keys don't cluster in the table.
+    int hash = key * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    resizeAt = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+
+    allocate(capacity);
+    size = 0;
+
+    for (int i = 0; i < oldKeys.length; i ++) {
+      if (oldKeys[i] != FREE_KEY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "IntIntMap{size=" + size() + ", capacity=" + keys.length + '}';
+  }
+}
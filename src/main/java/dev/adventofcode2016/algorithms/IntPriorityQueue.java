@@ -0,0 +1,149 @@
+package dev.adventofcode2016.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of int elements with int priorities.  This is the primitive counterpart of
+ * IndexedPriorityQueue - elements and priorities are kept in parallel arrays, and an IntIntMap tracks
+ * each element's slot in the heap so priorities can be decreased in place.
+ */
+public class IntPriorityQueue {
+  private final IntIntMap slots = new IntIntMap(); // Map of element to its slot in the heap.
+  private int[] elements;
+  private int[] priorities;
+  private int size = 0;
+
+  public IntPriorityQueue() {
+    this(16);
+  }
+
+  public IntPriorityQueue(int initialCapacity) {
+    this.elements = new int[Math.max(1, initialCapacity)];
+    this.priorities = new int[elements.length];
+  }
+
+  /**
+   * Adds the element to the queue if it's not already in it, or lowers its priority if the given
+   * priority is lower than its current priority.
+   *
+   * @param element  Element to add or update
+   * @param priority Priority of the element.  Lower priorities are polled first.
+   * @return Whether the queue changed
+   */
+  public boolean addOrDecreasePriority(int element, int priority) {
+    int slot = slots.get(element, -1);
+
+    if (slot == -1) {
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, size * 2);
+        priorities = Arrays.copyOf(priorities, size * 2);
+      }
+
+      siftUp(size++, element, priority);
+      return true;
+    }
+
+    if (priority >= priorities[slot]) {
+      return false;
+    }
+
+    siftUp(slot, element, priority);
+    return true;
+  }
+
+  /**
+   * Removes the element with the lowest priority from the queue and returns it.
+   *
+   * @return Element with the lowest priority
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public int poll() {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty.");
+    }
+
+    int first = elements[0];
+    slots.remove(first);
+
+    size--;
+    if (size > 0) {
+      siftDown(0, elements[size], priorities[size]);
+    }
+
+    return first;
+  }
+
+  /**
+   * Returns the lowest priority in the queue without removing its element.
+   *
+   * @return Lowest priority in the queue
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public int peekPriority() {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty.");
+    }
+
+    return priorities[0];
+  }
+
+  public boolean contains(int element) {
+    return slots.containsKey(element);
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private void siftUp(int slot, int element, int priority) {
+    while (slot > 0) {
+      int parentSlot = (slot - 1) >>> 1;
+
+      if (priorities[parentSlot] <= priority) {
+        break;
+      }
+
+      move(parentSlot, slot);
+      slot = parentSlot;
+    }
+
+    set(slot, element, priority);
+  }
+
+  private void siftDown(int slot, int element, int priority) {
+    int half = size >>> 1; // Slots at or after half are leaves.
+
+    while (slot < half) {
+      int childSlot = 2 * slot + 1;
+
+      int rightSlot = childSlot + 1;
+      if (rightSlot < size && priorities[rightSlot] < priorities[childSlot]) {
+        childSlot = rightSlot;
+      }
+
+      if (priority <= priorities[childSlot]) {
+        break;
+      }
+
+      move(childSlot, slot);
+      slot = childSlot;
+    }
+
+    set(slot, element, priority);
+  }
+
+  private void move(int fromSlot, int toSlot) {
+    set(toSlot, elements[fromSlot], priorities[fromSlot]);
+  }
+
+  private void set(int slot, int element, int priority) {
+    elements[slot] = element;
+    priorities[slot] = priority;
+    slots.put(element, slot);
+  }
+}
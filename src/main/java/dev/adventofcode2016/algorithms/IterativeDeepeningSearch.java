@@ -0,0 +1,145 @@
+package dev.adventofcode2016.algorithms;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Iterative deepening A* (IDA*).  Runs depth-first searches that give up on paths whose score is higher
+ * than a bound, raising the bound to the lowest score that was cut off after each search.  Only the current
+ * path is kept in memory, so memory use grows with the depth of the solution instead of the number of
+ * states, at the cost of re-expanding states in every iteration.
+ *
+ * Depth-first search doesn't notice when it reaches the same state through different paths, which
+ * can make IDA* very slow on graphs with lots of transpositions.  The search can optionally remember
+ * the cheapest cost it has seen for up to maxRememberedNodes states in each iteration, and skip states
+ * that it's already reached more cheaply.
+ *
+ * https://en.wikipedia.org/wiki/Iterative_deepening_A*
+ *
+ * @param <POSITION> position type
+ */
+class IterativeDeepeningSearch<POSITION> {
+
+  /** Position on the current path, along with the neighbors that haven't been searched yet. */
+  private final class Frame {
+    private final POSITION position;
+    private final int cost;
+    private NeighborList neighbors = null; // Null until the position is expanded.
+    private int nextNeighbor = 0;
+
+    private Frame(POSITION position, int cost) {
+      this.position = position;
+      this.cost = cost;
+    }
+  }
+
+  /** List that collects the neighbors of an expanded position.  There's one per depth, reused across frames. */
+  private final class NeighborList extends ArrayList<POSITION> implements Consumer<POSITION> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void accept(POSITION neighbor) {
+      add(neighbor);
+    }
+  }
+
+  private final AStar<POSITION> search;
+  private final POSITION start;
+  private final POSITION end;
+  private final int maxRememberedNodes;
+
+  IterativeDeepeningSearch(AStar<POSITION> search, POSITION start, POSITION end, int maxRememberedNodes) {
+    if (maxRememberedNodes < 0) {
+      throw new IllegalArgumentException("Can't remember " + maxRememberedNodes + " nodes.");
+    }
+
+    this.search = search;
+    this.start = start;
+    this.end = end;
+    this.maxRememberedNodes = maxRememberedNodes;
+  }
+
+  ImmutableList<POSITION> shortestPath() {
+    int bound = search.heuristicCost(start, end);
+
+    Deque<Frame> path = new ArrayDeque<>();
+    Set<POSITION> onPath = new HashSet<>(); // Positions on the current path, which would form a cycle.
+    Map<POSITION, Integer> remembered = new HashMap<>(); // Map of position to the lowest cost seen this iteration.
+    List<NeighborList> neighborLists = new ArrayList<>(); // Neighbor list for each depth of the path.
+
+    while (true) {
+      int nextBound = Integer.MAX_VALUE; // Lowest score that was higher than the bound.
+
+      path.push(new Frame(start, 0));
+      onPath.add(start);
+      remembered.clear();
+
+      while (!path.isEmpty()) {
+        Frame frame = path.peek();
+
+        if (frame.neighbors == null) {
+          int score = frame.cost + search.heuristicCost(frame.position, end);
+          if (score > bound) {
+            nextBound = Math.min(nextBound, score);
+            onPath.remove(path.pop().position);
+            continue;
+          }
+
+          if (frame.position.equals(end)) {
+            ImmutableList.Builder<POSITION> shortestPath = ImmutableList.builder();
+            path.descendingIterator().forEachRemaining(pathFrame -> shortestPath.add(pathFrame.position));
+            return shortestPath.build();
+          }
+
+          int depth = path.size() - 1;
+          if (depth == neighborLists.size()) {
+            neighborLists.add(new NeighborList());
+          }
+
+          frame.neighbors = neighborLists.get(depth);
+          frame.neighbors.clear();
+          search.neighbors(frame.position, frame.neighbors);
+        }
+
+        if (frame.nextNeighbor == frame.neighbors.size()) {
+          onPath.remove(path.pop().position);
+          continue;
+        }
+
+        POSITION neighbor = frame.neighbors.get(frame.nextNeighbor ++);
+        if (onPath.contains(neighbor)) {
+          continue; // Cycle.
+        }
+
+        int neighborCost = frame.cost + search.checkedStepCost(frame.position, neighbor);
+
+        Integer rememberedCost = remembered.get(neighbor);
+        if (rememberedCost != null && rememberedCost <= neighborCost) {
+          continue; // Already searched from this neighbor with at least as much of the bound left.
+        }
+
+        if (rememberedCost != null || remembered.size() < maxRememberedNodes) {
+          remembered.put(neighbor, neighborCost);
+        }
+
+        path.push(new Frame(neighbor, neighborCost));
+        onPath.add(neighbor);
+      }
+
+      if (nextBound == Integer.MAX_VALUE) {
+        throw new IllegalStateException("No path from " + start + " to " + end);
+      }
+
+      bound = nextBound;
+    }
+  }
+}
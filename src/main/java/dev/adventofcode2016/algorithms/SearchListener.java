@@ -0,0 +1,46 @@
+package dev.adventofcode2016.algorithms;
+
+/**
+ * Receives events from a search, for instrumenting how much work the search does.  All of the methods
+ * do nothing by default, and searches without a listener use NONE, so instrumentation is nearly free
+ * when it's turned off.
+ */
+public interface SearchListener {
+
+  /** Listener that ignores every event. */
+  SearchListener NONE = new SearchListener() {};
+
+  /** Called once before the search starts. */
+  default void searchStarted() {}
+
+  /**
+   * Called each time the search expands a state.
+   *
+   * @param openSize   Number of states waiting to be expanded, after removing the expanded state
+   * @param closedSize Number of states that have been reached and aren't waiting to be expanded
+   */
+  default void expanded(int openSize, int closedSize) {}
+
+  /**
+   * Called for each neighbor the search generates.
+   *
+   * @param duplicate Whether the neighbor was already reached by a path that's at least as cheap
+   */
+  default void generated(boolean duplicate) {}
+
+  /**
+   * Called for each state on the shortest path once it's found, comparing the heuristic cost from
+   * the state to the end with the actual cost.
+   *
+   * @param heuristicCost Heuristic cost from the state to the end
+   * @param actualCost    Actual cost from the state to the end along the shortest path
+   */
+  default void pathState(int heuristicCost, int actualCost) {}
+
+  /**
+   * Called once after the search is over.
+   *
+   * @param found Whether the search found a path
+   */
+  default void searchFinished(boolean found) {}
+}
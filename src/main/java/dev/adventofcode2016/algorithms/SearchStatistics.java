@@ -0,0 +1,138 @@
+package dev.adventofcode2016.algorithms;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchListener that keeps statistics about a search - how many states were expanded and generated,
+ * how big the open and closed sets got, how accurate the heuristic was, and how long the search took.
+ * Statistics accumulate across searches until reset.
+ */
+public class SearchStatistics implements SearchListener {
+  private long expanded;
+  private long generated;
+  private long duplicates;
+  private int peakOpenSize;
+  private int peakClosedSize;
+  private long heuristicErrorTotal;
+  private long pathStates;
+  private long startNanos;
+  private long wallNanos;
+  private long searches;
+  private long pathsFound;
+
+  @Override
+  public void searchStarted() {
+    startNanos = System.nanoTime();
+    searches++;
+  }
+
+  @Override
+  public void expanded(int openSize, int closedSize) {
+    expanded++;
+    peakOpenSize = Math.max(peakOpenSize, openSize);
+    peakClosedSize = Math.max(peakClosedSize, closedSize);
+  }
+
+  @Override
+  public void generated(boolean duplicate) {
+    generated++;
+    if (duplicate) {
+      duplicates++;
+    }
+  }
+
+  @Override
+  public void pathState(int heuristicCost, int actualCost) {
+    heuristicErrorTotal += actualCost - heuristicCost;
+    pathStates++;
+  }
+
+  @Override
+  public void searchFinished(boolean found) {
+    wallNanos += System.nanoTime() - startNanos;
+    if (found) {
+      pathsFound++;
+    }
+  }
+
+  /** Clears all of the statistics. */
+  public void reset() {
+    expanded = 0;
+    generated = 0;
+    duplicates = 0;
+    peakOpenSize = 0;
+    peakClosedSize = 0;
+    heuristicErrorTotal = 0;
+    pathStates = 0;
+    wallNanos = 0;
+    searches = 0;
+    pathsFound = 0;
+  }
+
+  /** @return Number of states the search expanded */
+  public long getExpanded() {
+    return expanded;
+  }
+
+  /** @return Number of neighbors the search generated, including duplicates */
+  public long getGenerated() {
+    return generated;
+  }
+
+  /** @return Number of generated neighbors that had already been reached by a path that was at least as cheap */
+  public long getDuplicates() {
+    return duplicates;
+  }
+
+  /** @return Largest number of states waiting to be expanded at once */
+  public int getPeakOpenSize() {
+    return peakOpenSize;
+  }
+
+  /** @return Largest number of reached states that weren't waiting to be expanded */
+  public int getPeakClosedSize() {
+    return peakClosedSize;
+  }
+
+  /**
+   * Returns the average amount that the heuristic underestimated the cost to the end, over the states on
+   * the shortest paths that were found.  Lower is better, and 0 is a perfect heuristic.  Negative values
+   * mean the heuristic overestimates, which can make A* return paths that aren't the shortest.
+   *
+   * @return Average heuristic error, or 0 if no paths were found
+   */
+  public double getAverageHeuristicError() {
+    return pathStates == 0 ? 0 : (double) heuristicErrorTotal / pathStates;
+  }
+
+  /**
+   * @param unit Unit to return the time in
+   * @return Total time spent searching
+   */
+  public long getWallTime(TimeUnit unit) {
+    return unit.convert(wallNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** @return Number of searches that started */
+  public long getSearches() {
+    return searches;
+  }
+
+  /** @return Number of searches that found a path */
+  public long getPathsFound() {
+    return pathsFound;
+  }
+
+  @Override
+  public String toString() {
+    return "SearchStatistics{" +
+        "expanded=" + expanded +
+        ", generated=" + generated +
+        ", duplicates=" + duplicates +
+        ", peakOpenSize=" + peakOpenSize +
+        ", peakClosedSize=" + peakClosedSize +
+        ", averageHeuristicError=" + String.format("%.2f", getAverageHeuristicError()) +
+        ", wallTime=" + getWallTime(TimeUnit.MILLISECONDS) + "ms" +
+        '}';
+  }
+}
@@ -0,0 +1,141 @@
+package dev.adventofcode2016.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress of a long running search over increasing indexes, saved to a small file so a restarted search
+ * can continue where it left off instead of starting over at index 0.  Progress is the index below which
+ * every index has been scanned, along with a value for each hit found below it.
+ *
+ * The file is plain text - the name of the search, the scanned index, and a line with the index and value
+ * of each hit.  A file saved by a different search is ignored, and overwritten by the next save.  Saves
+ * write a temporary file and move it over the checkpoint, so a crash mid-save leaves the old checkpoint.
+ */
+public final class Checkpoint {
+  private static final long DEFAULT_INTERVAL_SECONDS = 10;
+
+  private final Path file;
+  private final String search;
+  private final long intervalNanos;
+
+  private final long scanned;
+  private final NavigableMap<Long, Integer> hits = new TreeMap<>();
+
+  private long lastSave; // Guarded by this.
+
+  /**
+   * Opens a checkpoint that saves at most every 10 seconds.
+   *
+   * @param file   File to save progress in
+   * @param search Name of the search, which identifies the file's progress
+   */
+  public Checkpoint(Path file, String search) {
+    this(file, search, DEFAULT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Opens a checkpoint, loading the search's progress from the file if there is any.
+   *
+   * @param file     File to save progress in
+   * @param search   Name of the search, which identifies the file's progress
+   * @param interval Minimum time between saves from update
+   * @param unit     Unit of interval
+   */
+  public Checkpoint(Path file, String search, long interval, TimeUnit unit) {
+    if (search.contains("\n")) {
+      throw new IllegalArgumentException("Search name can't contain a newline: " + search);
+    }
+
+    this.file = file;
+    this.search = search;
+    this.intervalNanos = unit.toNanos(interval);
+    this.lastSave = System.nanoTime();
+
+    long scanned = 0;
+
+    try {
+      if (Files.exists(file)) {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+        if (lines.size() >= 2 && lines.get(0).equals(search)) {
+          scanned = Long.parseLong(lines.get(1));
+
+          for (String line : lines.subList(2, lines.size())) {
+            String[] parts = line.split(" ");
+            hits.put(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Couldn't read checkpoint " + file, e);
+    } catch (RuntimeException e) {
+      throw new IllegalStateException("Checkpoint " + file + " is corrupt", e);
+    }
+
+    this.scanned = scanned;
+  }
+
+  /** @return Index below which every index was scanned when the checkpoint was opened */
+  public long scanned() {
+    return scanned;
+  }
+
+  /** @return Map of index to value of the hits found when the checkpoint was opened */
+  public NavigableMap<Long, Integer> hits() {
+    return Collections.unmodifiableNavigableMap(hits);
+  }
+
+  /**
+   * Records the search's progress, saving it if the interval has passed since the last save.
+   *
+   * @param scanned Index below which every index has been scanned
+   * @param hits    Map of index to value of every hit below scanned
+   */
+  public synchronized void update(long scanned, Map<Long, Integer> hits) {
+    if (System.nanoTime() - lastSave >= intervalNanos) {
+      save(scanned, hits);
+    }
+  }
+
+  /**
+   * Saves the search's progress now.
+   *
+   * @param scanned Index below which every index has been scanned
+   * @param hits    Map of index to value of every hit below scanned
+   */
+  public synchronized void save(long scanned, Map<Long, Integer> hits) {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+        writer.write(search);
+        writer.newLine();
+        writer.write(Long.toString(scanned));
+        writer.newLine();
+
+        for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+          writer.write(hit.getKey() + " " + hit.getValue());
+          writer.newLine();
+        }
+      }
+
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Couldn't save checkpoint " + file, e);
+    }
+
+    lastSave = System.nanoTime();
+  }
+}
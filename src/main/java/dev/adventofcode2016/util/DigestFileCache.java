@@ -0,0 +1,193 @@
+package dev.adventofcode2016.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file of MD5 digests for consecutive indexes, starting at index 0.  Digests that are expensive to
+ * compute, like stretched hashes, can be saved and read back by later runs instead of being recomputed.
+ *
+ * The file is a 16 byte header with the number of digests, followed by each digest's 16 bytes in the order
+ * MD5 outputs them.  The file is memory mapped, so reading a digest is a few loads from the page cache.  The
+ * mapping grows geometrically as digests are appended, up to 16MB regions, so small caches stay small files.
+ *
+ * A digest is written before the count that includes it, so a process that dies mid-append never exposes
+ * a partial digest.  Writes aren't forced to disk until close, so an OS crash or power failure can lose
+ * digests, or write the count back before the digests it covers.  Only one cache should append to a file at
+ * a time, and instances aren't thread safe.
+ */
+public final class DigestFileCache implements AutoCloseable {
+  private static final int MAGIC = 0x4D443543; // "MD5C"
+  private static final int HEADER_BYTES = 16;
+  private static final int COUNT_OFFSET = 8;
+  private static final int DIGEST_BYTES = Md5.DIGEST_WORDS * 4;
+  private static final int REGION_DIGESTS = 1 << 20; // Most digests in a mapped region - 16MB.
+  private static final int MIN_REGION_DIGESTS = 1 << 10; // Fewest digests in a new mapped region - 16KB.
+
+  private final Path file;
+  private final FileChannel channel;
+  private final MappedByteBuffer header;
+  // Mapped regions of the file after the header.  Every region but the last holds REGION_DIGESTS digests.
+  private final List<MappedByteBuffer> regions = new ArrayList<>();
+  private long mapped = 0; // Number of digests the regions can hold.
+  private long size;
+
+  /**
+   * Opens the cache in the given file, creating it if it doesn't exist.
+   *
+   * @param file File to read and append digests to
+   * @throws IllegalStateException if the file exists but isn't a digest cache
+   */
+  public DigestFileCache(Path file) {
+    this.file = file;
+
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Couldn't open digest cache " + file, e);
+    }
+
+    try {
+      boolean created = channel.size() == 0;
+      header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+
+      if (created) {
+        header.putInt(0, MAGIC);
+        header.putLong(COUNT_OFFSET, 0);
+      } else if (header.getInt(0) != MAGIC) {
+        throw new IllegalStateException(file + " isn't a digest cache");
+      }
+
+      size = header.getLong(COUNT_OFFSET);
+      map(size);
+    } catch (IOException e) {
+      closeAfter(e);
+      throw new UncheckedIOException("Couldn't open digest cache " + file, e);
+    } catch (RuntimeException e) {
+      closeAfter(e);
+      throw e;
+    }
+  }
+
+  /** @return Number of digests in the cache, which are the digests for indexes 0 through size - 1 */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Reads the digest for the given index.
+   *
+   * @param index  Index of the digest, less than size
+   * @param digest Array to write the digest into
+   * @param offset Offset of the digest's first word in digest
+   */
+  public void get(long index, int[] digest, int offset) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("No digest for index " + index + " in a cache of " + size);
+    }
+
+    MappedByteBuffer region = regions.get((int) (index / REGION_DIGESTS));
+    int position = (int) (index % REGION_DIGESTS) * DIGEST_BYTES;
+
+    for (int i = 0; i < Md5.DIGEST_WORDS; i ++) {
+      digest[offset + i] = region.getInt(position + i * 4);
+    }
+  }
+
+  /**
+   * Appends count digests, which become the digests for indexes size through size + count - 1.
+   *
+   * @param digests Array containing the digests, 4 ints per digest
+   * @param offset  Offset of the first digest's first word
+   * @param count   Number of digests to append
+   */
+  public void append(int[] digests, int offset, int count) {
+    map(size + count);
+
+    for (int digest = 0; digest < count; digest ++) {
+      MappedByteBuffer region = regions.get((int) ((size + digest) / REGION_DIGESTS));
+      int position = (int) ((size + digest) % REGION_DIGESTS) * DIGEST_BYTES;
+
+      for (int i = 0; i < Md5.DIGEST_WORDS; i ++) {
+        region.putInt(position + i * 4, digests[offset + digest * Md5.DIGEST_WORDS + i]);
+      }
+    }
+
+    size += count;
+    header.putLong(COUNT_OFFSET, size);
+  }
+
+  /**
+   * Forces the appended digests and their count to disk, and closes the file.  The mapping is released once
+   * it's garbage collected, and the cache can't be used after it's closed.
+   */
+  @Override
+  public void close() {
+    try {
+      // Force the digests before the count that covers them.
+      for (MappedByteBuffer region : regions) {
+        region.force();
+      }
+      header.force();
+
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Couldn't close digest cache " + file, e);
+    }
+
+    regions.clear();
+    mapped = 0;
+  }
+
+  /** Closes the channel after the constructor fails with the given exception. */
+  private void closeAfter(Exception failure) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  /**
+   * Maps enough of the file to hold count digests, growing the file if it's shorter.  The last region at least
+   * doubles each time it's remapped, so appending n digests maps O(log n) times.
+   */
+  private void map(long count) {
+    try {
+      while (mapped < count) {
+        int last = regions.size() - 1;
+        int capacity = last < 0 ? REGION_DIGESTS : regions.get(last).capacity() / DIGEST_BYTES;
+
+        int region;
+        int digests;
+        if (capacity < REGION_DIGESTS) {
+          // Grow the last region.
+          region = last;
+          digests = (int) Math.min(REGION_DIGESTS, Math.max(2L * capacity, count - (long) region * REGION_DIGESTS));
+          regions.remove(last);
+          mapped -= capacity;
+        } else {
+          region = regions.size();
+          digests = (int) Math.min(REGION_DIGESTS, Math.max(MIN_REGION_DIGESTS, count - (long) region * REGION_DIGESTS));
+        }
+
+        long start = HEADER_BYTES + (long) region * REGION_DIGESTS * DIGEST_BYTES;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, (long) digests * DIGEST_BYTES);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        regions.add(buffer);
+        mapped += digests;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Couldn't map digest cache " + file, e);
+    }
+  }
+}
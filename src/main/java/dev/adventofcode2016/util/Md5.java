@@ -0,0 +1,387 @@
+package dev.adventofcode2016.util;
+
+/**
+ * MD5 hash function that works on byte arrays and int digests, and doesn't allocate anything while hashing.
+ * Guava's Hashing.md5() allocates a MessageDigest, HashCode, and usually a String for every hash, which
+ * dominates the cost of the problems that hash millions of short inputs.
+ *
+ * Digests are 4 ints in MD5's native word order - the first byte of the hash is the low byte of digest[0].
+ * Instances keep scratch buffers, so they aren't thread safe.  Use one instance per thread.
+ *
+ * https://tools.ietf.org/html/rfc1321
+ */
+public final class Md5 {
+  /** Number of ints in a digest. */
+  public static final int DIGEST_WORDS = 4;
+
+  /** Number of bytes in a block of the message. */
+  public static final int BLOCK_BYTES = 64;
+
+  private static final int LENGTH_OFFSET = 56; // Offset of the message bit length in the last block.
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final int HEX_BITS = DIGEST_WORDS * 8 * 8; // Bit length of a digest's hex string.
+
+  // Additive constants of the 64 steps of the compression function, from RFC 1321.  compress uses the same
+  // values as literals, and MultiLaneMd5 reads them from this table.
+  static final int[] K = {
+      0xd76aa478, 0xe8c7b756, 0x242070db, 0xc1bdceee,
+      0xf57c0faf, 0x4787c62a, 0xa8304613, 0xfd469501,
+      0x698098d8, 0x8b44f7af, 0xffff5bb1, 0x895cd7be,
+      0x6b901122, 0xfd987193, 0xa679438e, 0x49b40821,
+      0xf61e2562, 0xc040b340, 0x265e5a51, 0xe9b6c7aa,
+      0xd62f105d, 0x02441453, 0xd8a1e681, 0xe7d3fbc8,
+      0x21e1cde6, 0xc33707d6, 0xf4d50d87, 0x455a14ed,
+      0xa9e3e905, 0xfcefa3f8, 0x676f02d9, 0x8d2a4c8a,
+      0xfffa3942, 0x8771f681, 0x6d9d6122, 0xfde5380c,
+      0xa4beea44, 0x4bdecfa9, 0xf6bb4b60, 0xbebfbc70,
+      0x289b7ec6, 0xeaa127fa, 0xd4ef3085, 0x04881d05,
+      0xd9d4d039, 0xe6db99e5, 0x1fa27cf8, 0xc4ac5665,
+      0xf4292244, 0x432aff97, 0xab9423a7, 0xfc93a039,
+      0x655b59c3, 0x8f0ccc92, 0xffeff47d, 0x85845dd1,
+      0x6fa87e4f, 0xfe2ce6e0, 0xa3014314, 0x4e0811a1,
+      0xf7537e82, 0xbd3af235, 0x2ad7d2bb, 0xeb86d391
+  };
+
+  // HEX_PAIRS[b] is the two ASCII hex characters of byte b, as a little-endian 16 bit value.  Two of them
+  // make up a word of a hex string message, so a digest can be turned into the words of its hex string
+  // without going through bytes.
+  static final int[] HEX_PAIRS = new int[256];
+
+  static {
+    for (int b = 0; b < 256; b ++) {
+      HEX_PAIRS[b] = HEX_DIGITS[b >>> 4] | HEX_DIGITS[b & 0xF] << 8;
+    }
+  }
+
+  private final int[] words = new int[16]; // Block that's being compressed, as little-endian words.
+  private final byte[] block = new byte[BLOCK_BYTES]; // Scratch space for the last, padded blocks.
+
+  /**
+   * Hashes length bytes of message, starting at offset, and writes the digest into the first 4 ints of digest.
+   *
+   * @param message Bytes to hash
+   * @param offset  Offset of the first byte to hash
+   * @param length  Number of bytes to hash
+   * @param digest  Array to write the digest into
+   */
+  public void digest(byte[] message, int offset, int length, int[] digest) {
+    reset(digest);
+
+    int end = offset + length;
+    for (; offset + BLOCK_BYTES <= end; offset += BLOCK_BYTES) {
+      compress(digest, message, offset);
+    }
+
+    finish(digest, message, offset, end - offset, length);
+  }
+
+  /**
+   * Finishes hashing a message whose first bytes have already been compressed into a midstate, so only the
+   * rest of the message has to be processed.  Messages that share a prefix can share its midstate.
+   *
+   * @param midstate        State after compressing the first processedLength bytes of the message
+   * @param processedLength Number of bytes compressed into midstate, a multiple of 64
+   * @param tail            Bytes of the message after the processed bytes
+   * @param offset          Offset of the first byte of the tail
+   * @param length          Number of bytes in the tail
+   * @param digest          Array to write the digest into
+   */
+  public void digest(int[] midstate, long processedLength, byte[] tail, int offset, int length, int[] digest) {
+    System.arraycopy(midstate, 0, digest, 0, DIGEST_WORDS);
+
+    int end = offset + length;
+    for (; offset + BLOCK_BYTES <= end; offset += BLOCK_BYTES) {
+      compress(digest, tail, offset);
+    }
+
+    finish(digest, tail, offset, end - offset, processedLength + length);
+  }
+
+  /**
+   * Compresses a full 64 byte block of a message into a midstate, for use with digest(midstate, ...).
+   *
+   * @param state   MD5 state, which is updated.  Starts as a copy of initialState().
+   * @param message Bytes of the message
+   * @param offset  Offset of the block
+   */
+  public void compressBlock(int[] state, byte[] message, int offset) {
+    compress(state, message, offset);
+  }
+
+  /** @return MD5's initial state, the midstate of an empty message */
+  public static int[] initialState() {
+    int[] state = new int[DIGEST_WORDS];
+    reset(state);
+    return state;
+  }
+
+  /**
+   * Stretches a digest by replacing it with the digest of its lowercase hex string, rounds times.  The hex
+   * string is built directly as message words with a lookup table, so stretching doesn't allocate anything
+   * or convert through a String.
+   *
+   * @param digest Digest to stretch, which is updated
+   * @param rounds Number of times to hash the digest's hex string
+   */
+  public void stretch(int[] digest, int rounds) {
+    for (int round = 0; round < rounds; round ++) {
+      for (int i = 0; i < DIGEST_WORDS; i ++) {
+        words[2 * i] = hexWord(digest[i], 0);
+        words[2 * i + 1] = hexWord(digest[i], 1);
+      }
+      padHexWords(words);
+
+      reset(digest);
+      compress(digest, words);
+    }
+  }
+
+  /**
+   * Returns a word of the hex string of a digest word.  Each digest word becomes 8 hex characters, which
+   * are two message words.
+   *
+   * @param digestWord Word of a digest
+   * @param half       0 for the word of the first 2 bytes of digestWord, 1 for the last 2
+   * @return Word of the hex string, in little-endian order
+   */
+  static int hexWord(int digestWord, int half) {
+    int bytes = digestWord >>> (16 * half);
+    return HEX_PAIRS[bytes & 0xFF] | HEX_PAIRS[(bytes >>> 8) & 0xFF] << 16;
+  }
+
+  /**
+   * Fills in words 8 through 15 of a block whose first 8 words are a 32 character hex string - the padding
+   * and the message length.  The hex string fits in one block, so that's the whole message.
+   *
+   * @param words Block of 16 words
+   */
+  static void padHexWords(int[] words) {
+    words[8] = 0x80;
+    for (int i = 9; i < 14; i ++) {
+      words[i] = 0;
+    }
+    words[14] = HEX_BITS;
+    words[15] = 0;
+  }
+
+  /**
+   * Sets the state to MD5's initial state.
+   *
+   * @param state Array of at least 4 ints
+   */
+  static void reset(int[] state) {
+    state[0] = 0x67452301;
+    state[1] = 0xefcdab89;
+    state[2] = 0x98badcfe;
+    state[3] = 0x10325476;
+  }
+
+  /**
+   * Compresses the 64 byte block of message starting at offset into the state.
+   *
+   * @param state  MD5 state, which is updated
+   * @param message Bytes to compress
+   * @param offset Offset of the block
+   */
+  void compress(int[] state, byte[] message, int offset) {
+    for (int i = 0; i < 16; i ++) {
+      words[i] = littleEndianInt(message, offset + i * 4);
+    }
+
+    compress(state, words);
+  }
+
+  /**
+   * Pads the last partial block of a message and compresses it into the state, finishing the hash.
+   *
+   * @param state       MD5 state, which is updated to the digest
+   * @param message     Bytes of the message
+   * @param offset      Offset of the last partial block in message
+   * @param remaining   Number of bytes in the last partial block, less than 64
+   * @param totalLength Length of the entire message in bytes
+   */
+  void finish(int[] state, byte[] message, int offset, int remaining, long totalLength) {
+    System.arraycopy(message, offset, block, 0, remaining);
+    block[remaining] = (byte) 0x80;
+
+    if (remaining >= LENGTH_OFFSET) {
+      // No room for the length - pad this block, and put the length in a block of its own.
+      for (int i = remaining + 1; i < BLOCK_BYTES; i ++) {
+        block[i] = 0;
+      }
+      compress(state, block, 0);
+
+      for (int i = 0; i < LENGTH_OFFSET; i ++) {
+        block[i] = 0;
+      }
+    } else {
+      for (int i = remaining + 1; i < LENGTH_OFFSET; i ++) {
+        block[i] = 0;
+      }
+    }
+
+    long bits = totalLength * 8;
+    for (int i = 0; i < 8; i ++) {
+      block[LENGTH_OFFSET + i] = (byte) (bits >>> (8 * i));
+    }
+
+    compress(state, block, 0);
+  }
+
+  /**
+   * MD5 compression function.  Mixes a block of 16 words into the state.
+   *
+   * @param state MD5 state, which is updated
+   * @param x     Block of 16 words
+   */
+  static void compress(int[] state, int[] x) {
+    int a = state[0];
+    int b = state[1];
+    int c = state[2];
+    int d = state[3];
+
+    // Round 1
+    a = ff(a, b, c, d, x[0], 7, 0xd76aa478);
+    d = ff(d, a, b, c, x[1], 12, 0xe8c7b756);
+    c = ff(c, d, a, b, x[2], 17, 0x242070db);
+    b = ff(b, c, d, a, x[3], 22, 0xc1bdceee);
+    a = ff(a, b, c, d, x[4], 7, 0xf57c0faf);
+    d = ff(d, a, b, c, x[5], 12, 0x4787c62a);
+    c = ff(c, d, a, b, x[6], 17, 0xa8304613);
+    b = ff(b, c, d, a, x[7], 22, 0xfd469501);
+    a = ff(a, b, c, d, x[8], 7, 0x698098d8);
+    d = ff(d, a, b, c, x[9], 12, 0x8b44f7af);
+    c = ff(c, d, a, b, x[10], 17, 0xffff5bb1);
+    b = ff(b, c, d, a, x[11], 22, 0x895cd7be);
+    a = ff(a, b, c, d, x[12], 7, 0x6b901122);
+    d = ff(d, a, b, c, x[13], 12, 0xfd987193);
+    c = ff(c, d, a, b, x[14], 17, 0xa679438e);
+    b = ff(b, c, d, a, x[15], 22, 0x49b40821);
+
+    // Round 2
+    a = gg(a, b, c, d, x[1], 5, 0xf61e2562);
+    d = gg(d, a, b, c, x[6], 9, 0xc040b340);
+    c = gg(c, d, a, b, x[11], 14, 0x265e5a51);
+    b = gg(b, c, d, a, x[0], 20, 0xe9b6c7aa);
+    a = gg(a, b, c, d, x[5], 5, 0xd62f105d);
+    d = gg(d, a, b, c, x[10], 9, 0x02441453);
+    c = gg(c, d, a, b, x[15], 14, 0xd8a1e681);
+    b = gg(b, c, d, a, x[4], 20, 0xe7d3fbc8);
+    a = gg(a, b, c, d, x[9], 5, 0x21e1cde6);
+    d = gg(d, a, b, c, x[14], 9, 0xc33707d6);
+    c = gg(c, d, a, b, x[3], 14, 0xf4d50d87);
+    b = gg(b, c, d, a, x[8], 20, 0x455a14ed);
+    a = gg(a, b, c, d, x[13], 5, 0xa9e3e905);
+    d = gg(d, a, b, c, x[2], 9, 0xfcefa3f8);
+    c = gg(c, d, a, b, x[7], 14, 0x676f02d9);
+    b = gg(b, c, d, a, x[12], 20, 0x8d2a4c8a);
+
+    // Round 3
+    a = hh(a, b, c, d, x[5], 4, 0xfffa3942);
+    d = hh(d, a, b, c, x[8], 11, 0x8771f681);
+    c = hh(c, d, a, b, x[11], 16, 0x6d9d6122);
+    b = hh(b, c, d, a, x[14], 23, 0xfde5380c);
+    a = hh(a, b, c, d, x[1], 4, 0xa4beea44);
+    d = hh(d, a, b, c, x[4], 11, 0x4bdecfa9);
+    c = hh(c, d, a, b, x[7], 16, 0xf6bb4b60);
+    b = hh(b, c, d, a, x[10], 23, 0xbebfbc70);
+    a = hh(a, b, c, d, x[13], 4, 0x289b7ec6);
+    d = hh(d, a, b, c, x[0], 11, 0xeaa127fa);
+    c = hh(c, d, a, b, x[3], 16, 0xd4ef3085);
+    b = hh(b, c, d, a, x[6], 23, 0x04881d05);
+    a = hh(a, b, c, d, x[9], 4, 0xd9d4d039);
+    d = hh(d, a, b, c, x[12], 11, 0xe6db99e5);
+    c = hh(c, d, a, b, x[15], 16, 0x1fa27cf8);
+    b = hh(b, c, d, a, x[2], 23, 0xc4ac5665);
+
+    // Round 4
+    a = ii(a, b, c, d, x[0], 6, 0xf4292244);
+    d = ii(d, a, b, c, x[7], 10, 0x432aff97);
+    c = ii(c, d, a, b, x[14], 15, 0xab9423a7);
+    b = ii(b, c, d, a, x[5], 21, 0xfc93a039);
+    a = ii(a, b, c, d, x[12], 6, 0x655b59c3);
+    d = ii(d, a, b, c, x[3], 10, 0x8f0ccc92);
+    c = ii(c, d, a, b, x[10], 15, 0xffeff47d);
+    b = ii(b, c, d, a, x[1], 21, 0x85845dd1);
+    a = ii(a, b, c, d, x[8], 6, 0x6fa87e4f);
+    d = ii(d, a, b, c, x[15], 10, 0xfe2ce6e0);
+    c = ii(c, d, a, b, x[6], 15, 0xa3014314);
+    b = ii(b, c, d, a, x[13], 21, 0x4e0811a1);
+    a = ii(a, b, c, d, x[4], 6, 0xf7537e82);
+    d = ii(d, a, b, c, x[11], 10, 0xbd3af235);
+    c = ii(c, d, a, b, x[2], 15, 0x2ad7d2bb);
+    b = ii(b, c, d, a, x[9], 21, 0xeb86d391);
+
+    state[0] += a;
+    state[1] += b;
+    state[2] += c;
+    state[3] += d;
+  }
+
+  private static int ff(int a, int b, int c, int d, int x, int s, int k) {
+    return Integer.rotateLeft(a + ((b & c) | (~b & d)) + x + k, s) + b;
+  }
+
+  private static int gg(int a, int b, int c, int d, int x, int s, int k) {
+    return Integer.rotateLeft(a + ((b & d) | (c & ~d)) + x + k, s) + b;
+  }
+
+  private static int hh(int a, int b, int c, int d, int x, int s, int k) {
+    return Integer.rotateLeft(a + (b ^ c ^ d) + x + k, s) + b;
+  }
+
+  private static int ii(int a, int b, int c, int d, int x, int s, int k) {
+    return Integer.rotateLeft(a + (c ^ (b | ~d)) + x + k, s) + b;
+  }
+
+  static int littleEndianInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF)
+        | (bytes[offset + 1] & 0xFF) << 8
+        | (bytes[offset + 2] & 0xFF) << 16
+        | (bytes[offset + 3] & 0xFF) << 24;
+  }
+
+  /**
+   * Returns the hex digit at the given index of the digest's hex string, without building the string.
+   *
+   * @param digest Digest
+   * @param index  Index of the hex digit, from 0 to 31
+   * @return Value of the hex digit, from 0 to 15
+   */
+  public static int hexDigit(int[] digest, int index) {
+    int digestByte = (digest[index >>> 3] >>> (8 * ((index >>> 1) & 3))) & 0xFF;
+    return (index & 1) == 0 ? digestByte >>> 4 : digestByte & 0xF;
+  }
+
+  /**
+   * Returns the lowercase hex string of the digest, like Guava's HashCode.toString().
+   *
+   * @param digest Digest
+   * @return 32 character hex string
+   */
+  public static String toHex(int[] digest) {
+    char[] hex = new char[DIGEST_WORDS * 8];
+    for (int i = 0; i < hex.length; i ++) {
+      hex[i] = HEX_DIGITS[hexDigit(digest, i)];
+    }
+
+    return new String(hex);
+  }
+
+  /**
+   * Writes the lowercase hex string of the digest starting at digest[digestOffset] into hex as ASCII bytes,
+   * without building a String.  Used to hash a hash's hex string.
+   *
+   * @param digest       Array containing the digest
+   * @param digestOffset Offset of the digest's first word
+   * @param hex          Array to write the 32 hex characters into
+   * @param hexOffset    Offset to write the first hex character at
+   */
+  public static void toHex(int[] digest, int digestOffset, byte[] hex, int hexOffset) {
+    for (int i = 0; i < DIGEST_WORDS * 4; i ++) {
+      int pair = HEX_PAIRS[(digest[digestOffset + (i >>> 2)] >>> (8 * (i & 3))) & 0xFF];
+      hex[hexOffset + 2 * i] = (byte) pair;
+      hex[hexOffset + 2 * i + 1] = (byte) (pair >>> 8);
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package dev.adventofcode2016.util;
+
+import java.util.Arrays;
+
+/**
+ * MD5 hash function that hashes several messages of the same length at once.  Each message gets a lane in
+ * the state and word arrays, and every step of the compression function runs across all of the lanes in
+ * a tight loop.  The lanes are independent, so the CPU can overlap them instead of waiting on the long
+ * dependency chain of a single MD5, and the JIT is free to vectorize the loops.
+ *
+ * Every message can start with the same prefix, whose full blocks are hashed once into a midstate.  The
+ * message words that hold only bytes of the rest of the prefix are decoded once too, so each hash only decodes
+ * the words that contain message bytes.  Digests are written in the same word order as Md5.  Instances keep scratch buffers, so they aren't thread safe.
+ */
+public final class MultiLaneMd5 {
+  /** Number of messages hashed together. */
+  public static final int LANES = 8;
+
+  private static final int LENGTH_OFFSET = 56; // Offset of the message bit length in the last block.
+
+  // Shift amounts and message word index for each of the 64 steps.  The additive constants are Md5.K.
+  private static final int[] S = {
+      7, 12, 17, 22, 7, 12, 17, 22, 7, 12, 17, 22, 7, 12, 17, 22,
+      5, 9, 14, 20, 5, 9, 14, 20, 5, 9, 14, 20, 5, 9, 14, 20,
+      4, 11, 16, 23, 4, 11, 16, 23, 4, 11, 16, 23, 4, 11, 16, 23,
+      6, 10, 15, 21, 6, 10, 15, 21, 6, 10, 15, 21, 6, 10, 15, 21
+  };
+
+  private static final int[] G = new int[64];
+
+  private static final int[] INITIAL_STATE = new int[Md5.DIGEST_WORDS];
+  private static final int[] HEX_PADDING = new int[16]; // Padding and length words of a hex string message.
+
+  static {
+    Md5.reset(INITIAL_STATE);
+    Md5.padHexWords(HEX_PADDING);
+
+    for (int step = 0; step < 64; step ++) {
+      switch (step / 16) {
+        case 0: G[step] = step; break;
+        case 1: G[step] = (5 * step + 1) % 16; break;
+        case 2: G[step] = (3 * step + 5) % 16; break;
+        default: G[step] = (7 * step) % 16; break;
+      }
+    }
+  }
+
+  private final int[] midstate = new int[Md5.DIGEST_WORDS]; // State after compressing the prefix's full blocks.
+  private final long prefixLength;
+  private final int tailLength; // Number of prefix bytes after its last full block.
+  private final int[] tailWords; // Words of the first block after the midstate that hold only prefix bytes.
+
+  private final int[][] words = new int[16][LANES]; // [word][lane] of the blocks that are being compressed.
+  private final int[][] state = new int[Md5.DIGEST_WORDS][LANES]; // [word][lane] of the state.
+  private final int[][] registers = new int[Md5.DIGEST_WORDS][LANES]; // Working copy of the state.
+  private byte[][] buffers = new byte[LANES][]; // Tail of the prefix followed by each message and padding.
+
+  /** Constructs a multi-lane hash function for messages without a common prefix. */
+  public MultiLaneMd5() {
+    this(new byte[0]);
+  }
+
+  /**
+   * Constructs a multi-lane hash function for messages that start with the given prefix.
+   *
+   * @param prefix Bytes that every message starts with
+   */
+  public MultiLaneMd5(byte[] prefix) {
+    Md5 md5 = new Md5();
+    Md5.reset(midstate);
+
+    int fullBlocks = prefix.length / Md5.BLOCK_BYTES;
+    for (int block = 0; block < fullBlocks; block ++) {
+      md5.compress(midstate, prefix, block * Md5.BLOCK_BYTES);
+    }
+
+    this.prefixLength = prefix.length;
+    this.tailLength = prefix.length - fullBlocks * Md5.BLOCK_BYTES;
+    this.tailWords = new int[tailLength / 4];
+
+    for (int i = 0; i < tailWords.length; i ++) {
+      tailWords[i] = Md5.littleEndianInt(prefix, fullBlocks * Md5.BLOCK_BYTES + i * 4);
+    }
+
+    for (int lane = 0; lane < LANES; lane ++) {
+      buffers[lane] = Arrays.copyOfRange(prefix, fullBlocks * Md5.BLOCK_BYTES, fullBlocks * Md5.BLOCK_BYTES + Md5.BLOCK_BYTES);
+    }
+  }
+
+  /**
+   * Hashes count messages that are length bytes long and stored back to back in messages, each after the
+   * prefix.  The digest of message i is written to digests[4 * i] through digests[4 * i + 3].
+   *
+   * @param messages Messages to hash, where message i starts at offset i * length
+   * @param length   Length of each message in bytes
+   * @param count    Number of messages to hash
+   * @param digests  Array of at least 4 * count ints to write the digests into
+   */
+  public void digest(byte[] messages, int length, int count, int[] digests) {
+    int remaining = tailLength + length; // Bytes of each message after the midstate.
+    int blocks = (remaining + 8) / Md5.BLOCK_BYTES + 1; // Blocks to compress, including padding.
+    int lengthOffset = (blocks - 1) * Md5.BLOCK_BYTES + LENGTH_OFFSET;
+    long bits = (prefixLength + length) * 8;
+
+    for (int first = 0; first < count; first += LANES) {
+      int lanes = Math.min(LANES, count - first);
+
+      for (int lane = 0; lane < lanes; lane ++) {
+        byte[] buffer = buffer(lane, blocks * Md5.BLOCK_BYTES);
+
+        System.arraycopy(messages, (first + lane) * length, buffer, tailLength, length);
+        buffer[remaining] = (byte) 0x80;
+
+        for (int i = remaining + 1; i < lengthOffset; i ++) {
+          buffer[i] = 0;
+        }
+
+        for (int i = 0; i < 8; i ++) {
+          buffer[lengthOffset + i] = (byte) (bits >>> (8 * i));
+        }
+      }
+
+      for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+        Arrays.fill(state[word], midstate[word]);
+      }
+
+      for (int block = 0; block < blocks; block ++) {
+        // The first block starts with the prefix tail, whose words are the same in every lane.
+        int decoded = block == 0 ? tailWords.length : 0;
+        for (int i = 0; i < decoded; i ++) {
+          Arrays.fill(words[i], tailWords[i]);
+        }
+
+        for (int lane = 0; lane < lanes; lane ++) {
+          byte[] buffer = buffers[lane];
+
+          for (int i = decoded; i < 16; i ++) {
+            words[i][lane] = Md5.littleEndianInt(buffer, block * Md5.BLOCK_BYTES + i * 4);
+          }
+        }
+
+        compress();
+      }
+
+      for (int lane = 0; lane < lanes; lane ++) {
+        for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+          digests[(first + lane) * Md5.DIGEST_WORDS + word] = state[word][lane];
+        }
+      }
+    }
+  }
+
+  /**
+   * Stretches count digests by replacing each one with the digest of its lowercase hex string, rounds times,
+   * like Md5.stretch.  Hex strings are hashed on their own, without the prefix.
+   *
+   * @param digests Digests to stretch, 4 ints per digest, which are updated
+   * @param count   Number of digests
+   * @param rounds  Number of times to hash each digest's hex string
+   */
+  public void stretch(int[] digests, int count, int rounds) {
+    for (int first = 0; first < count; first += LANES) {
+      int lanes = Math.min(LANES, count - first);
+
+      for (int lane = 0; lane < lanes; lane ++) {
+        for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+          state[word][lane] = digests[(first + lane) * Md5.DIGEST_WORDS + word];
+        }
+      }
+
+      // The padding and length of a hex string are the same in every round.
+      for (int i = 8; i < 16; i ++) {
+        Arrays.fill(words[i], HEX_PADDING[i]);
+      }
+
+      for (int round = 0; round < rounds; round ++) {
+        for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+          int[] stateWord = state[word];
+          int[] low = words[2 * word];
+          int[] high = words[2 * word + 1];
+
+          for (int lane = 0; lane < LANES; lane ++) {
+            low[lane] = Md5.hexWord(stateWord[lane], 0);
+            high[lane] = Md5.hexWord(stateWord[lane], 1);
+          }
+        }
+
+        for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+          Arrays.fill(state[word], INITIAL_STATE[word]);
+        }
+        compress();
+      }
+
+      for (int lane = 0; lane < lanes; lane ++) {
+        for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+          digests[(first + lane) * Md5.DIGEST_WORDS + word] = state[word][lane];
+        }
+      }
+    }
+  }
+
+  /** Returns the buffer for the given lane, growing it to hold at least size bytes. */
+  private byte[] buffer(int lane, int size) {
+    if (buffers[lane].length < size) {
+      buffers[lane] = Arrays.copyOf(buffers[lane], size);
+    }
+
+    return buffers[lane];
+  }
+
+  /** Mixes the blocks in words into the state of every lane. */
+  private void compress() {
+    for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+      System.arraycopy(state[word], 0, registers[word], 0, LANES);
+    }
+
+    // The registers rotate after every step - the new a is the old d, and the updated a becomes b.
+    int[] a = registers[0];
+    int[] b = registers[1];
+    int[] c = registers[2];
+    int[] d = registers[3];
+
+    for (int step = 0; step < 64; step ++) {
+      int[] x = words[G[step]];
+      int k = Md5.K[step];
+      int s = S[step];
+
+      switch (step / 16) {
+        case 0:
+          for (int lane = 0; lane < LANES; lane ++) {
+            a[lane] = Integer.rotateLeft(a[lane] + ((b[lane] & c[lane]) | (~b[lane] & d[lane])) + x[lane] + k, s) + b[lane];
+          }
+          break;
+        case 1:
+          for (int lane = 0; lane < LANES; lane ++) {
+            a[lane] = Integer.rotateLeft(a[lane] + ((b[lane] & d[lane]) | (c[lane] & ~d[lane])) + x[lane] + k, s) + b[lane];
+          }
+          break;
+        case 2:
+          for (int lane = 0; lane < LANES; lane ++) {
+            a[lane] = Integer.rotateLeft(a[lane] + (b[lane] ^ c[lane] ^ d[lane]) + x[lane] + k, s) + b[lane];
+          }
+          break;
+        default:
+          for (int lane = 0; lane < LANES; lane ++) {
+            a[lane] = Integer.rotateLeft(a[lane] + (c[lane] ^ (b[lane] | ~d[lane])) + x[lane] + k, s) + b[lane];
+          }
+          break;
+      }
+
+      int[] rotated = d;
+      d = c;
+      c = b;
+      b = a;
+      a = rotated;
+    }
+
+    // After 64 steps the registers have rotated back to where they started.
+    for (int word = 0; word < Md5.DIGEST_WORDS; word ++) {
+      int[] register = registers[word];
+      int[] stateWord = state[word];
+
+      for (int lane = 0; lane < LANES; lane ++) {
+        stateWord[lane] += register[lane];
+      }
+    }
+  }
+}
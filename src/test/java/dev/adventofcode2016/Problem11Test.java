@@ -1,5 +1,6 @@
 package dev.adventofcode2016;
 
+import dev.adventofcode2016.algorithms.SearchStatistics;
 import org.junit.Test;
 
 import static dev.adventofcode2016.Problem11.MoveableType.GENERATOR;
@@ -46,4 +47,75 @@ public class Problem11Test {
 
     assertThat(new Problem11().shortestPath(building, endBuilding)).hasSize(12);
   }
+
+  @Test
+  public void part1ExampleFewestStepsEncoded() {
+    Problem11.Building building = new Problem11.Building(
+        1,
+        new Problem11.Moveable('H', 2, GENERATOR),
+        new Problem11.Moveable('H', 1, MICROCHIP),
+        new Problem11.Moveable('L', 3, GENERATOR),
+        new Problem11.Moveable('L', 1, MICROCHIP)
+    );
+
+    Problem11.Building endBuilding = new Problem11.Building(
+        4,
+        new Problem11.Moveable('H', 4, GENERATOR),
+        new Problem11.Moveable('H', 4, MICROCHIP),
+        new Problem11.Moveable('L', 4, GENERATOR),
+        new Problem11.Moveable('L', 4, MICROCHIP)
+    );
+
+    assertThat(new Problem11().fewestSteps(building, endBuilding)).isEqualTo(11);
+  }
+
+  @Test
+  public void part1ExampleSearchStatistics() {
+    Problem11.Building building = new Problem11.Building(
+        1,
+        new Problem11.Moveable('H', 2, GENERATOR),
+        new Problem11.Moveable('H', 1, MICROCHIP),
+        new Problem11.Moveable('L', 3, GENERATOR),
+        new Problem11.Moveable('L', 1, MICROCHIP)
+    );
+
+    Problem11.Building endBuilding = new Problem11.Building(
+        4,
+        new Problem11.Moveable('H', 4, GENERATOR),
+        new Problem11.Moveable('H', 4, MICROCHIP),
+        new Problem11.Moveable('L', 4, GENERATOR),
+        new Problem11.Moveable('L', 4, MICROCHIP)
+    );
+
+    SearchStatistics statistics = new SearchStatistics();
+
+    assertThat(new Problem11().fewestSteps(building, endBuilding, statistics)).isEqualTo(11);
+    assertThat(statistics.getSearches()).isEqualTo(1);
+    assertThat(statistics.getPathsFound()).isEqualTo(1);
+    assertThat(statistics.getExpanded()).isGreaterThanOrEqualTo(11);
+    assertThat(statistics.getGenerated()).isGreaterThanOrEqualTo(statistics.getExpanded() - 1);
+    assertThat(statistics.getPeakOpenSize()).isPositive();
+    assertThat(statistics.getAverageHeuristicError()).isGreaterThanOrEqualTo(0); // The heuristic is admissible.
+  }
+
+  @Test
+  public void encodingIgnoresPairNames() {
+    Problem11.Building building = new Problem11.Building(
+        1,
+        new Problem11.Moveable('H', 2, GENERATOR),
+        new Problem11.Moveable('H', 1, MICROCHIP),
+        new Problem11.Moveable('L', 3, GENERATOR),
+        new Problem11.Moveable('L', 1, MICROCHIP)
+    );
+
+    Problem11.Building swapped = new Problem11.Building(
+        1,
+        new Problem11.Moveable('H', 3, GENERATOR),
+        new Problem11.Moveable('H', 1, MICROCHIP),
+        new Problem11.Moveable('L', 2, GENERATOR),
+        new Problem11.Moveable('L', 1, MICROCHIP)
+    );
+
+    assertThat(building.encode()).isEqualTo(swapped.encode());
+  }
 }
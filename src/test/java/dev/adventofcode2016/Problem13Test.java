@@ -1,8 +1,19 @@
 package dev.adventofcode2016;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 public class Problem13Test {
 
@@ -22,12 +33,64 @@ public class Problem13Test {
         );
   }
 
+  @Test
+  public void streamingRenderMatchesRender() throws IOException {
+    Problem13.Point min = new Problem13.Point(0, 0);
+    Problem13.Point max = new Problem13.Point(9, 6);
+    String expected = String.join("\n", maze.render(max)) + "\n";
+
+    StringWriter writer = new StringWriter();
+    maze.render(min, max, Problem13.Overlay.NONE, writer);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    maze.render(min, max, Problem13.Overlay.NONE, Channels.newChannel(bytes));
+
+    assertThat(writer.toString()).isEqualTo(expected);
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.US_ASCII)).isEqualTo(expected);
+  }
+
+  @Test
+  public void renderOverlays() throws IOException {
+    Problem13.Point start = new Problem13.Point(1, 1);
+    Problem13.Point min = new Problem13.Point(0, 0);
+    Problem13.Point max = new Problem13.Point(9, 6);
+
+    StringWriter path = new StringWriter();
+    maze.render(min, new Problem13.Point(9, 2), Problem13.Overlay.path(maze.shortestPath(start, new Problem13.Point(4, 1))), path);
+
+    StringWriter distances = new StringWriter();
+    Problem13.DistanceField field = maze.distanceField(ImmutableList.of(start), min, max);
+    maze.render(min, new Problem13.Point(9, 2), Problem13.Overlay.distances(field), distances);
+
+    assertThat(path.toString()).isEqualTo(
+        ".#.####.##\n" +
+        ".O#.O#...#\n" +
+        "#OOOO##...\n");
+    assertThat(distances.toString()).isEqualTo(
+        "2#.####.##\n" +
+        "10#45#...#\n" +
+        "#1234##...\n");
+  }
+
   @Test
   public void outsideIsClosed() {
     assertThat(maze.isOpen(new Problem13.Point(-1, 0))).isFalse();
     assertThat(maze.isOpen(new Problem13.Point(0, -1))).isFalse();
   }
 
+  @Test
+  public void cachedTilesMatchFormula() {
+    int[] coordinates = {0, 1, 62, 63, 64, 65, 127, 128, 4000, 0xFFFE, 0xFFFF, 0x10000, 0x10001};
+
+    for (int x : coordinates) {
+      for (int y : coordinates) {
+        int value = x * x + 3 * x + 2 * x * y + y + y * y + 10;
+
+        assertThat(maze.isOpen(x, y)).as("(" + x + ", " + y + ")").isEqualTo(Integer.bitCount(value) % 2 == 0);
+      }
+    }
+  }
+
   @Test
   public void part1ExampleShortestPath() {
     int steps = maze.fewestSteps(new Problem13.Point(1, 1), new Problem13.Point(7, 4));
@@ -35,8 +98,186 @@ public class Problem13Test {
     assertThat(steps).isEqualTo(11);
   }
 
+  @Test
+  public void part1ExampleShortestPathBoundedMemory() {
+    Problem13.Point start = new Problem13.Point(1, 1);
+    Problem13.Point end = new Problem13.Point(7, 4);
+
+    assertThat(maze.iterativeDeepeningShortestPath(start, end, 64)).hasSize(12);
+  }
+
+  @Test
+  public void part1ExampleParallelShortestPath() {
+    Problem13.Point start = new Problem13.Point(1, 1);
+    Problem13.Point end = new Problem13.Point(7, 4);
+
+    assertThat(maze.parallelShortestPath(start, end, 4)).hasSize(12);
+  }
+
+  @Test
+  public void fewestStepsToMultipleEnds() {
+    Problem13.Point start = new Problem13.Point(1, 1);
+    Problem13.Point example = new Problem13.Point(7, 4);
+    Problem13.Point neighbor = new Problem13.Point(0, 1);
+    Problem13.Point wall = new Problem13.Point(1, 0);
+
+    assertThat(maze.fewestSteps(start, ImmutableList.of(example, neighbor, wall, start)))
+        .containsOnly(entry(example, 11), entry(neighbor, 1), entry(start, 0));
+  }
+
+  @Test
+  public void distancesBetweenPoints() {
+    ImmutableList<Problem13.Point> points = ImmutableList.of(
+        new Problem13.Point(1, 1),
+        new Problem13.Point(7, 4),
+        new Problem13.Point(0, 1)
+    );
+
+    assertThat(maze.distancesBetween(points)).isEqualTo(new int[][]{
+        {0, 11, 1},
+        {11, 0, 12},
+        {1, 12, 0}
+    });
+  }
+
   @Test
   public void reachableIn4Steps() {
     assertThat(maze.reachable(new Problem13.Point(1, 1), 4)).isEqualTo(9);
   }
+
+  @Test
+  public void reachableByDistanceIn4Steps() {
+    assertThat(maze.reachableByDistance(new Problem13.Point(1, 1), 4)).containsExactly(1, 2, 2, 1, 3);
+  }
+
+  @Test
+  public void reachableByDistanceEndsAtTheFarthestPoint() {
+    Problem13.Maze bigMaze = new Problem13.Maze(1358);
+    Problem13.Point start = new Problem13.Point(1, 1);
+
+    int[] histogram = bigMaze.reachableByDistance(start, Integer.MAX_VALUE);
+
+    assertThat(histogram.length).isLessThan(1000);
+    assertThat(histogram[histogram.length - 1]).isPositive();
+    assertThat(IntStream.of(histogram).sum()).isEqualTo(bigMaze.reachable(start, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void reachableRejectsUnencodableStarts() {
+    assertThatThrownBy(() -> maze.reachable(new Problem13.Point(0x10000, 0), 4))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void reachableFromAnEnclosedStartWithLargeMaxSteps() {
+    Problem13.Maze bigMaze = new Problem13.Maze(1358);
+    Problem13.Point start = new Problem13.Point(1, 1);
+
+    int[] histogram = bigMaze.reachableByDistance(start, 5000);
+
+    assertThat(IntStream.of(histogram).sum()).isEqualTo(bigMaze.reachable(start, 5000));
+    assertThat(IntStream.of(histogram).limit(51).sum()).isEqualTo(bigMaze.reachable(start, 50)).isEqualTo(141);
+  }
+
+  @Test
+  public void reachableFromAnOpenStart() {
+    // Regions are enclosed in every maze, but this is one of the largest, with points 513 steps from the start.
+    Problem13.Maze openMaze = new Problem13.Maze(63);
+    Problem13.Point start = new Problem13.Point(2233, 1888);
+    int maxSteps = 5000;
+
+    Problem13.DistanceField field = openMaze.distanceField(ImmutableList.of(start),
+        new Problem13.Point(start.x - 520, start.y - 520), new Problem13.Point(start.x + 520, start.y + 520));
+
+    int[] histogram = new int[maxSteps + 1];
+    for (int x = start.x - 520; x <= start.x + 520; x ++) {
+      for (int y = start.y - 520; y <= start.y + 520; y ++) {
+        int distance = field.distance(x, y);
+        if (distance >= 0) {
+          histogram[distance] ++;
+        }
+      }
+    }
+
+    assertThat(openMaze.reachableByDistance(start, maxSteps)).isEqualTo(Arrays.copyOf(histogram, 514));
+    assertThat(openMaze.reachable(start, maxSteps)).isEqualTo(2161);
+    assertThat(openMaze.reachable(start, 300)).isEqualTo(IntStream.of(histogram).limit(301).sum());
+  }
+
+  @Test
+  public void distanceFieldFromSeveralSources() {
+    Problem13.Point start = new Problem13.Point(1, 1);
+    Problem13.Point example = new Problem13.Point(7, 4);
+    Problem13.Point min = new Problem13.Point(0, 0);
+    Problem13.Point max = new Problem13.Point(9, 6);
+
+    Problem13.DistanceField fromStart = maze.distanceField(ImmutableList.of(start), min, max);
+    Problem13.DistanceField fromExample = maze.distanceField(ImmutableList.of(example), min, max);
+    Problem13.DistanceField fromBoth = maze.distanceField(ImmutableList.of(start, example), min, max);
+
+    assertThat(fromStart.distance(example)).isEqualTo(11);
+    assertThat(fromStart.distance(1, 0)).isEqualTo(-1);
+    assertThat(fromStart.distance(10, 0)).isEqualTo(-1);
+
+    for (int x = min.x; x <= max.x; x ++) {
+      for (int y = min.y; y <= max.y; y ++) {
+        int expected = fromStart.distance(x, y) < 0 ? fromExample.distance(x, y)
+            : fromExample.distance(x, y) < 0 ? fromStart.distance(x, y)
+            : Math.min(fromStart.distance(x, y), fromExample.distance(x, y));
+
+        assertThat(fromBoth.distance(x, y)).as("(" + x + ", " + y + ")").isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  public void parallelDistanceFieldMatchesReachable() {
+    Problem13.Maze bigMaze = new Problem13.Maze(1358);
+    Problem13.Point start = new Problem13.Point(1, 1);
+    int maxSteps = 1000;
+
+    Problem13.DistanceField field = bigMaze.distanceField(
+        ImmutableList.of(start), new Problem13.Point(0, 0), new Problem13.Point(maxSteps + 1, maxSteps + 1));
+
+    int[] histogram = new int[maxSteps + 1];
+    for (int x = 0; x <= maxSteps + 1; x ++) {
+      for (int y = 0; y <= maxSteps + 1; y ++) {
+        int distance = field.distance(x, y);
+        if (distance >= 0 && distance <= maxSteps) {
+          histogram[distance] ++;
+        }
+      }
+    }
+
+    // The start is enclosed, so reachableByDistance ends at its farthest point, before maxSteps.
+    int[] expected = bigMaze.reachableByDistance(start, maxSteps);
+    assertThat(Arrays.copyOf(histogram, expected.length)).isEqualTo(expected);
+    assertThat(IntStream.of(histogram).sum()).isEqualTo(IntStream.of(expected).sum());
+  }
+
+  @Test
+  public void bidirectionalMatchesOneSidedSearch() {
+    Problem13.Maze bigMaze = new Problem13.Maze(1358);
+    Problem13.Point start = new Problem13.Point(1, 1);
+
+    for (int x = 0; x < 40; x += 3) {
+      for (int y = 0; y < 40; y += 3) {
+        Problem13.Point end = new Problem13.Point(x, y);
+        if (!bigMaze.isOpen(end) || bigMaze.neighbors(end).isEmpty()) {
+          continue;
+        }
+
+        int oneSided;
+        try {
+          oneSided = bigMaze.shortestPath(start, end).size() - 1;
+        } catch (IllegalStateException e) {
+          // The start is in an enclosed part of the maze, and the end is outside of it.
+          assertThatThrownBy(() -> bigMaze.fewestSteps(start, end)).isInstanceOf(IllegalStateException.class);
+          continue;
+        }
+
+        assertThat(bigMaze.fewestSteps(start, end)).as("Steps to " + end).isEqualTo(oneSided);
+      }
+    }
+  }
 }
@@ -1,7 +1,10 @@
 package dev.adventofcode2016;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.nio.file.Path;
 import java.util.OptionalInt;
 import java.util.stream.IntStream;
 
@@ -11,6 +14,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 public class Problem14Test {
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private Problem14.KeyGenerator keyGenerator = new Problem14.KeyGenerator("abc", PLAIN_HASH);
   private Problem14.KeyGenerator stretchedKeyGenerator = new Problem14.KeyGenerator("abc", STRETCHED_HASH);
 
@@ -63,4 +69,35 @@ public class Problem14Test {
   public void stretchedHash() {
     assertThat(stretchedKeyGenerator.generateKey(0)).startsWith("a107ff");
   }
+
+  @Test
+  public void nthKeyIndexResumesFromCheckpoint() throws Exception {
+    Path checkpoint = temporaryFolder.getRoot().toPath().resolve("problem14.checkpoint");
+
+    assertThat(Problem14.nthKeyIndex(keyGenerator, 10, checkpoint)).isEqualTo(Problem14.nthKeyIndex(keyGenerator, 10));
+    assertThat(Problem14.nthKeyIndex(new Problem14.KeyGenerator("abc", PLAIN_HASH), 64, checkpoint)).isEqualTo(22728);
+  }
+
+  @Test
+  public void producerThreadsHashKeysInOrder() {
+    Problem14.KeyGenerator threadedKeyGenerator = new Problem14.KeyGenerator("abc", PLAIN_HASH, 3);
+
+    assertThat(Problem14.nthKeyIndex(threadedKeyGenerator, 64)).isEqualTo(22728);
+    assertThat(threadedKeyGenerator.generateKey(18)).contains("cc38887a5");
+  }
+
+  @Test
+  public void keysAreReadBackFromTheCache() {
+    Path cacheDirectory = temporaryFolder.getRoot().toPath().resolve("keys");
+
+    try (Problem14.KeyGenerator keyGenerator = new Problem14.KeyGenerator("abc", PLAIN_HASH, cacheDirectory)) {
+      assertThat(Problem14.nthKeyIndex(keyGenerator, 64)).isEqualTo(22728);
+    }
+    assertThat(cacheDirectory.toFile().list()).containsExactly("616263-0.digests");
+
+    try (Problem14.KeyGenerator cachedKeyGenerator = new Problem14.KeyGenerator("abc", PLAIN_HASH, cacheDirectory)) {
+      assertThat(Problem14.nthKeyIndex(cachedKeyGenerator, 64)).isEqualTo(22728);
+      assertThat(cachedKeyGenerator.generateKey(18)).contains("cc38887a5");
+    }
+  }
 }
@@ -2,7 +2,10 @@ package dev.adventofcode2016;
 
 import org.junit.Test;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class Problem17Test {
 
@@ -52,4 +55,21 @@ public class Problem17Test {
   public void longestPathExample3() {
     assertThat(new Problem17("ulqzkmiv").longestPath()).hasSize(830);
   }
+
+  @Test
+  public void longestPathOnExplicitPool() {
+    ForkJoinPool pool = new ForkJoinPool(2);
+
+    try {
+      assertThat(new Problem17("ihgpwlah").longestPath(pool)).hasSize(370);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void longestPathWithoutAPathToTheVault() {
+    // hijkl's doors all lock before the vault can be reached.
+    assertThatThrownBy(() -> new Problem17("hijkl").longestPath()).isInstanceOf(IllegalStateException.class);
+  }
 }
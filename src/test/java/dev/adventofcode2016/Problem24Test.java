@@ -0,0 +1,38 @@
+package dev.adventofcode2016;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Problem24Test {
+
+  private static final Problem24.Ducts EXAMPLE = Problem24.Ducts.fromLines(ImmutableList.of(
+      "###########",
+      "#0.1.....2#",
+      "#.#######.#",
+      "#4.......3#",
+      "###########"
+  ));
+
+  @Test
+  public void parseLocations() {
+    assertThat(EXAMPLE.locations).containsExactly(
+        new Problem24.Position(1, 1),
+        new Problem24.Position(3, 1),
+        new Problem24.Position(9, 1),
+        new Problem24.Position(9, 3),
+        new Problem24.Position(1, 3)
+    );
+  }
+
+  @Test
+  public void exampleFewestSteps() {
+    assertThat(EXAMPLE.fewestSteps(false)).isEqualTo(14);
+  }
+
+  @Test
+  public void exampleFewestStepsReturningToStart() {
+    assertThat(EXAMPLE.fewestSteps(true)).isEqualTo(20);
+  }
+}
@@ -1,11 +1,21 @@
 package dev.adventofcode2016;
 
+import dev.adventofcode2016.util.Checkpoint;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NavigableMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class Problem5Test {
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Test
   public void part1Example() {
     String password = Problem5.password("abc", 3);
@@ -17,4 +27,39 @@ public class Problem5Test {
     String password = Problem5.positionPassword("abc");
     assertThat(password).isEqualTo("05ace8e3");
   }
+
+  @Test
+  public void batchMinerFindsHitsInIndexOrder() {
+    NavigableMap<Long, Integer> hits = new Problem5.BatchMiner("abc", 4, 1_000).mine(found -> found.size() >= 3);
+
+    assertThat(hits.keySet()).startsWith(3231929L, 5017308L, 5278568L);
+  }
+
+  @Test
+  public void positionPasswordResumesFromCheckpoint() {
+    Path checkpoint = temporaryFolder.getRoot().toPath().resolve("problem5.checkpoint");
+
+    assertThat(Problem5.positionPassword("abc", checkpoint)).isEqualTo("05ace8e3");
+    assertThat(Files.exists(checkpoint)).isTrue();
+    assertThat(Problem5.positionPassword("abc", checkpoint)).isEqualTo("05ace8e3");
+  }
+
+  @Test
+  public void positionPasswordResumesFromPartialCheckpoint() {
+    Path checkpoint = temporaryFolder.getRoot().toPath().resolve("problem5.checkpoint");
+    NavigableMap<Long, Integer> uninterrupted = new Problem5.BatchMiner("abc", 4, 1_000).mine(found -> found.size() >= 3);
+
+    // Interrupted after scanning up to 5000000, which found the first hit but not the second.
+    new Checkpoint(checkpoint, "Problem5 abc").save(5_000_000, uninterrupted.headMap(5_000_000L, false));
+
+    NavigableMap<Long, Integer> resumed = new Problem5.BatchMiner("abc", 4, 1_000)
+        .mine(found -> found.size() >= 3, new Checkpoint(checkpoint, "Problem5 abc"));
+
+    // The known hit is counted once, so mining stops after the same three hits.
+    assertThat(resumed).isEqualTo(uninterrupted);
+
+    new Checkpoint(checkpoint, "Problem5 abc").save(5_000_000, uninterrupted.headMap(5_000_000L, false));
+
+    assertThat(Problem5.positionPassword("abc", checkpoint)).isEqualTo("05ace8e3");
+  }
 }
@@ -0,0 +1,212 @@
+package dev.adventofcode2016.algorithms;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dev.adventofcode2016.util.ImmutableListCollector;
+import org.junit.Test;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AStarTest {
+
+  /**
+   * Small weighted, directed graph:
+   *
+   *   S --1--> A --1--> C --10--> G
+   *   |                 ^
+   *   +--1--> B ---3----+
+   *
+   * The heuristic is admissible but inconsistent, so C is first evaluated through the more expensive
+   * path through B, and has to be re-opened once the cheaper path through A is found.
+   */
+  private static class Graph implements AStar<String> {
+    private final ImmutableMap<String, ImmutableMap<String, Integer>> edges = ImmutableMap.of(
+        "S", ImmutableMap.of("A", 1, "B", 1),
+        "A", ImmutableMap.of("C", 1),
+        "B", ImmutableMap.of("C", 3),
+        "C", ImmutableMap.of("G", 10),
+        "G", ImmutableMap.of()
+    );
+
+    private final ImmutableMap<String, Integer> heuristic = ImmutableMap.of(
+        "S", 0, "A", 5, "B", 0, "C", 0, "G", 0
+    );
+
+    @Override
+    public int heuristicCost(String from, String to) {
+      return heuristic.get(from);
+    }
+
+    @Override
+    public int stepCost(String from, String to) {
+      return edges.get(from).get(to);
+    }
+
+    @Override
+    public ImmutableList<String> neighbors(String position) {
+      return edges.get(position).keySet().asList();
+    }
+
+    @Override
+    public ImmutableList<String> reverseNeighbors(String position) {
+      return edges.keySet().stream()
+          .filter(from -> edges.get(from).containsKey(position))
+          .collect(new ImmutableListCollector<>());
+    }
+
+    @Override
+    public void reverseNeighbors(String position, Consumer<String> neighbors) {
+      reverseNeighbors(position).forEach(neighbors);
+    }
+  }
+
+  @Test
+  public void weightedShortestPath() {
+    assertThat(new Graph().shortestPath("S", "G")).containsExactly("S", "A", "C", "G");
+  }
+
+  @Test
+  public void shortestPathUsesNeighborConsumer() {
+    AStar<String> consumerOnly = new Graph() {
+      @Override
+      public ImmutableList<String> neighbors(String position) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void neighbors(String position, Consumer<String> neighbors) {
+        super.neighbors(position).forEach(neighbors);
+      }
+
+      @Override
+      public ImmutableList<String> reverseNeighbors(String position) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void reverseNeighbors(String position, Consumer<String> neighbors) {
+        super.reverseNeighbors(position).forEach(neighbors);
+      }
+    };
+
+    assertThat(consumerOnly.shortestPath("S", "G")).containsExactly("S", "A", "C", "G");
+    assertThat(consumerOnly.bidirectionalShortestPath("S", "G")).containsExactly("S", "A", "C", "G");
+    assertThat(consumerOnly.iterativeDeepeningShortestPath("S", "G", 0)).containsExactly("S", "A", "C", "G");
+  }
+
+  @Test
+  public void backwardSearchUsesNeighborConsumer() {
+    // An undirected line of positions 0 to 10 that only passes neighbors to a consumer.
+    AStar<Integer> line = new AStar<Integer>() {
+      @Override
+      public int heuristicCost(Integer from, Integer to) {
+        return 0;
+      }
+
+      @Override
+      public ImmutableList<Integer> neighbors(Integer position) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void neighbors(Integer position, Consumer<Integer> neighbors) {
+        if (position > 0) {
+          neighbors.accept(position - 1);
+        }
+        if (position < 10) {
+          neighbors.accept(position + 1);
+        }
+      }
+    };
+
+    assertThat(line.bidirectionalShortestPath(0, 10)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+  }
+
+  @Test
+  public void searchStatistics() {
+    SearchStatistics statistics = new SearchStatistics();
+    new Graph().shortestPath("S", "G", statistics);
+
+    // S, B, C (through B), A, C (through A) are expanded before G is found.
+    assertThat(statistics.getExpanded()).isEqualTo(5);
+    assertThat(statistics.getGenerated()).isEqualTo(6);
+    assertThat(statistics.getDuplicates()).isEqualTo(0);
+    assertThat(statistics.getPathsFound()).isEqualTo(1);
+
+    // Actual costs to G along S, A, C, G are 12, 11, 10, 0 and heuristics are 0, 5, 0, 0.
+    assertThat(statistics.getAverageHeuristicError()).isEqualTo((12 + 6 + 10) / 4.0);
+  }
+
+  @Test
+  public void searchStatisticsAccumulateUntilReset() {
+    SearchStatistics statistics = new SearchStatistics();
+    new Graph().shortestPath("S", "G", statistics);
+    new Graph().shortestPath("S", "G", statistics);
+
+    assertThat(statistics.getSearches()).isEqualTo(2);
+    assertThat(statistics.getPathsFound()).isEqualTo(2);
+    assertThat(statistics.getExpanded()).isEqualTo(10);
+    assertThat(statistics.getAverageHeuristicError()).isEqualTo((12 + 6 + 10) / 4.0);
+
+    statistics.reset();
+
+    assertThat(statistics.getSearches()).isEqualTo(0);
+    assertThat(statistics.getExpanded()).isEqualTo(0);
+    assertThat(statistics.getPeakOpenSize()).isEqualTo(0);
+    assertThat(statistics.getAverageHeuristicError()).isEqualTo(0);
+  }
+
+  @Test
+  public void weightedBidirectionalShortestPath() {
+    assertThat(new Graph().bidirectionalShortestPath("S", "G")).containsExactly("S", "A", "C", "G");
+  }
+
+  @Test
+  public void bidirectionalShortestPathToStart() {
+    assertThat(new Graph().bidirectionalShortestPath("S", "S")).containsExactly("S");
+  }
+
+  @Test
+  public void iterativeDeepeningShortestPath() {
+    assertThat(new Graph().iterativeDeepeningShortestPath("S", "G")).containsExactly("S", "A", "C", "G");
+  }
+
+  @Test
+  public void iterativeDeepeningShortestPathWithNodeBudget() {
+    assertThat(new Graph().iterativeDeepeningShortestPath("S", "G", 2)).containsExactly("S", "A", "C", "G");
+  }
+
+  @Test
+  public void parallelShortestPath() {
+    assertThat(new Graph().parallelShortestPath("S", "G", 4)).containsExactly("S", "A", "C", "G");
+  }
+
+  @Test
+  public void negativeStepCost() {
+    AStar<String> negative = new Graph() {
+      @Override
+      public int stepCost(String from, String to) {
+        return -1;
+      }
+    };
+
+    assertThatThrownBy(() -> negative.shortestPath("S", "G"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void parallelNegativeStepCost() {
+    AStar<String> negative = new Graph() {
+      @Override
+      public int stepCost(String from, String to) {
+        return -1;
+      }
+    };
+
+    assertThatThrownBy(() -> negative.parallelShortestPath("S", "G", 4))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,71 @@
+package dev.adventofcode2016.algorithms;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HeldKarpTest {
+
+  @Test
+  public void matchesEveryOrder() {
+    Random random = new Random(10);
+
+    for (int trial = 0; trial < 20; trial ++) {
+      int locations = 1 + random.nextInt(7);
+      int[][] distances = new int[locations][locations];
+      for (int i = 0; i < locations; i ++) {
+        for (int j = 0; j < locations; j ++) {
+          distances[i][j] = i == j ? 0 : 1 + random.nextInt(100);
+        }
+      }
+
+      int start = random.nextInt(locations);
+
+      assertThat(HeldKarp.shortestRoute(distances, start, false))
+          .isEqualTo(bruteForce(distances, start, false, 1 << start, start));
+      assertThat(HeldKarp.shortestRoute(distances, start, true))
+          .isEqualTo(bruteForce(distances, start, true, 1 << start, start));
+    }
+  }
+
+  @Test
+  public void rejectsInvalidLocations() {
+    assertThatThrownBy(() -> HeldKarp.shortestRoute(new int[0][], 0, false))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> HeldKarp.shortestRoute(new int[][]{{0, 1}, {1, 0}}, 2, false))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> HeldKarp.shortestRoute(new int[][]{{0, 1}, {1, 0}}, -1, false))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void unreachableLocations() {
+    int[][] distances = {
+        {0, 1, -1},
+        {-1, 0, -1},
+        {-1, -1, 0}
+    };
+
+    assertThatThrownBy(() -> HeldKarp.shortestRoute(distances, 0, false)).isInstanceOf(IllegalStateException.class);
+  }
+
+  /** Returns the cheapest route that extends a route ending at last through the visited locations. */
+  private static int bruteForce(int[][] distances, int start, boolean returnToStart, int visited, int last) {
+    int locations = distances.length;
+    if (visited == (1 << locations) - 1) {
+      return returnToStart ? distances[last][start] : 0;
+    }
+
+    int best = Integer.MAX_VALUE;
+    for (int next = 0; next < locations; next ++) {
+      if ((visited & 1 << next) == 0) {
+        best = Math.min(best, distances[last][next] + bruteForce(distances, start, returnToStart, visited | 1 << next, next));
+      }
+    }
+
+    return best;
+  }
+}
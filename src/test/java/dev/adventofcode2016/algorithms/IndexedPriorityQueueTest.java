@@ -0,0 +1,61 @@
+package dev.adventofcode2016.algorithms;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IndexedPriorityQueueTest {
+
+  @Test
+  public void pollsLowestPriorityFirst() {
+    IndexedPriorityQueue<String> queue = new IndexedPriorityQueue<>(1);
+    queue.add("c", 3);
+    queue.add("a", 1);
+    queue.add("d", 4);
+    queue.add("b", 2);
+
+    assertThat(queue.size()).isEqualTo(4);
+    assertThat(queue.poll()).isEqualTo("a");
+    assertThat(queue.poll()).isEqualTo("b");
+    assertThat(queue.poll()).isEqualTo("c");
+    assertThat(queue.poll()).isEqualTo("d");
+    assertThat(queue.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void decreasePriority() {
+    IndexedPriorityQueue<String> queue = new IndexedPriorityQueue<>();
+    queue.add("a", 1);
+    queue.add("b", 5);
+    queue.add("c", 3);
+
+    queue.decreasePriority("b", 0);
+
+    assertThat(queue.peekPriority()).isEqualTo(0);
+    assertThat(queue.poll()).isEqualTo("b");
+    assertThat(queue.contains("b")).isFalse();
+    assertThat(queue.poll()).isEqualTo("a");
+  }
+
+  @Test
+  public void addOrDecreasePriorityIgnoresHigherPriority() {
+    IndexedPriorityQueue<String> queue = new IndexedPriorityQueue<>();
+    queue.add("a", 2);
+
+    assertThat(queue.addOrDecreasePriority("a", 4)).isFalse();
+    assertThat(queue.addOrDecreasePriority("a", 1)).isTrue();
+    assertThat(queue.addOrDecreasePriority("b", 3)).isTrue();
+
+    assertThat(queue.peekPriority()).isEqualTo(1);
+    assertThat(queue.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void increasePriorityFails() {
+    IndexedPriorityQueue<String> queue = new IndexedPriorityQueue<>();
+    queue.add("a", 2);
+
+    assertThatThrownBy(() -> queue.decreasePriority("a", 3)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
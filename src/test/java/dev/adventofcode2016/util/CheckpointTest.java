@@ -0,0 +1,39 @@
+package dev.adventofcode2016.util;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class CheckpointTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void savesAndLoadsProgress() {
+    Path file = temporaryFolder.getRoot().toPath().resolve("search.checkpoint");
+
+    new Checkpoint(file, "search").save(100, ImmutableMap.of(3L, 7, 42L, -1));
+    Checkpoint checkpoint = new Checkpoint(file, "search");
+
+    assertThat(checkpoint.scanned()).isEqualTo(100);
+    assertThat(checkpoint.hits()).containsExactly(entry(3L, 7), entry(42L, -1));
+  }
+
+  @Test
+  public void ignoresProgressFromOtherSearches() {
+    Path file = temporaryFolder.getRoot().toPath().resolve("search.checkpoint");
+
+    new Checkpoint(file, "search").save(100, ImmutableMap.of(3L, 7));
+    Checkpoint checkpoint = new Checkpoint(file, "other search");
+
+    assertThat(checkpoint.scanned()).isEqualTo(0);
+    assertThat(checkpoint.hits()).isEmpty();
+  }
+}
@@ -0,0 +1,67 @@
+package dev.adventofcode2016.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DigestFileCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void appendedDigestsSurviveReopening() {
+    Path file = temporaryFolder.getRoot().toPath().resolve("keys.digests");
+
+    try (DigestFileCache cache = new DigestFileCache(file)) {
+      cache.append(new int[]{1, 2, 3, 4, 5, 6, 7, 8}, 0, 2);
+      cache.append(new int[]{0, 9, 10, 11, 12}, 1, 1);
+    }
+
+    try (DigestFileCache reopened = new DigestFileCache(file)) {
+      int[] digest = new int[Md5.DIGEST_WORDS];
+
+      assertThat(reopened.size()).isEqualTo(3);
+      reopened.get(1, digest, 0);
+      assertThat(digest).containsExactly(5, 6, 7, 8);
+      reopened.get(2, digest, 0);
+      assertThat(digest).containsExactly(9, 10, 11, 12);
+    }
+  }
+
+  @Test
+  public void fileGrowsWithTheDigests() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("keys.digests");
+    int count = 5000;
+
+    try (DigestFileCache cache = new DigestFileCache(file)) {
+      for (int i = 0; i < count; i ++) {
+        cache.append(new int[]{i, i + 1, i + 2, i + 3}, 0, 1);
+      }
+
+      assertThat(Files.size(file)).isLessThan(4L * count * 16);
+    }
+
+    try (DigestFileCache reopened = new DigestFileCache(file)) {
+      int[] digest = new int[Md5.DIGEST_WORDS];
+
+      assertThat(reopened.size()).isEqualTo(count);
+      reopened.get(count - 1, digest, 0);
+      assertThat(digest).containsExactly(count - 1, count, count + 1, count + 2);
+    }
+  }
+
+  @Test
+  public void rejectsOtherFiles() throws Exception {
+    Path file = temporaryFolder.newFile("other.txt").toPath();
+    Files.write(file, "Not a digest cache, but long enough to have a header.".getBytes());
+
+    assertThatThrownBy(() -> new DigestFileCache(file)).isInstanceOf(IllegalStateException.class);
+  }
+}
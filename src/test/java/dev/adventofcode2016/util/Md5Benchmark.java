@@ -0,0 +1,88 @@
+package dev.adventofcode2016.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the MD5 implementations on a batch of short salted inputs, like the ones Problem5 and Problem14 hash.
+ * Run with main from the test classpath - it isn't part of the unit tests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Md5Benchmark {
+  private static final String SALT = "reyedfim";
+  private static final int BATCH = 64;
+  private static final int LENGTH = 7; // Digits in each index.
+
+  private final HashFunction guava = Hashing.md5();
+  private final Md5 md5 = new Md5();
+  private final MultiLaneMd5 multiLaneMd5 = new MultiLaneMd5(SALT.getBytes(StandardCharsets.UTF_8));
+
+  private final String[] salted = new String[BATCH];
+  private final byte[] saltedBytes = new byte[BATCH * (SALT.length() + LENGTH)];
+  private final byte[] indexes = new byte[BATCH * LENGTH];
+  private final int[] digests = new int[BATCH * Md5.DIGEST_WORDS];
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < BATCH; i ++) {
+      String index = Integer.toString(1_000_000 + i);
+      salted[i] = SALT + index;
+
+      byte[] saltedIndex = salted[i].getBytes(StandardCharsets.UTF_8);
+      System.arraycopy(saltedIndex, 0, saltedBytes, i * saltedIndex.length, saltedIndex.length);
+      System.arraycopy(index.getBytes(StandardCharsets.UTF_8), 0, indexes, i * LENGTH, LENGTH);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void guava(Blackhole blackhole) {
+    for (String input : salted) {
+      blackhole.consume(guava.hashString(input, StandardCharsets.UTF_8).asBytes());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int[] md5() {
+    int length = SALT.length() + LENGTH;
+    for (int i = 0; i < BATCH; i ++) {
+      md5.digest(saltedBytes, i * length, length, digests);
+    }
+    return digests;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int[] multiLaneMd5() {
+    multiLaneMd5.digest(indexes, LENGTH, BATCH, digests);
+    return digests;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(Md5Benchmark.class.getSimpleName()).build()).run();
+  }
+}
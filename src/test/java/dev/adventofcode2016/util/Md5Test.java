@@ -0,0 +1,98 @@
+package dev.adventofcode2016.util;
+
+import com.google.common.hash.Hashing;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Md5Test {
+
+  private final Md5 md5 = new Md5();
+
+  @Test
+  public void rfc1321TestSuite() {
+    assertThat(hex("")).isEqualTo("d41d8cd98f00b204e9800998ecf8427e");
+    assertThat(hex("a")).isEqualTo("0cc175b9c0f1b6a831c399e269772661");
+    assertThat(hex("abc")).isEqualTo("900150983cd24fb0d6963f7d28e17f72");
+    assertThat(hex("message digest")).isEqualTo("f96b697d7cb7938d525a2f31aaf161d0");
+    assertThat(hex("12345678901234567890123456789012345678901234567890123456789012345678901234567890"))
+        .isEqualTo("57edf4a22be3c955ac49da2e2107b67a");
+  }
+
+  @Test
+  public void matchesGuavaForAllBlockBoundaries() {
+    Random random = new Random(24);
+    int[] digest = new int[Md5.DIGEST_WORDS];
+
+    for (int length = 0; length < 200; length ++) {
+      byte[] bytes = new byte[length + 3];
+      random.nextBytes(bytes);
+
+      md5.digest(bytes, 3, length, digest);
+
+      assertThat(Md5.toHex(digest)).as("Length " + length)
+          .isEqualTo(Hashing.md5().hashBytes(bytes, 3, length).toString());
+    }
+  }
+
+  @Test
+  public void hexDigit() {
+    int[] digest = new int[Md5.DIGEST_WORDS];
+    byte[] bytes = "abc".getBytes(StandardCharsets.UTF_8);
+    md5.digest(bytes, 0, bytes.length, digest);
+
+    String hex = Md5.toHex(digest);
+    for (int i = 0; i < hex.length(); i ++) {
+      assertThat(Md5.hexDigit(digest, i)).isEqualTo(Character.digit(hex.charAt(i), 16));
+    }
+  }
+
+  @Test
+  public void stretchHashesHexStrings() {
+    int[] digest = new int[Md5.DIGEST_WORDS];
+    byte[] bytes = "abc0".getBytes(StandardCharsets.UTF_8);
+    md5.digest(bytes, 0, bytes.length, digest);
+
+    String expected = Md5.toHex(digest);
+    for (int i = 0; i < 2016; i ++) {
+      expected = Hashing.md5().hashString(expected, StandardCharsets.UTF_8).toString();
+    }
+
+    md5.stretch(digest, 2016);
+
+    assertThat(Md5.toHex(digest)).isEqualTo(expected).startsWith("a107ff");
+  }
+
+  @Test
+  public void midstateDigestMatchesWholeMessage() {
+    Random random = new Random(17);
+    int[] expected = new int[Md5.DIGEST_WORDS];
+    int[] digest = new int[Md5.DIGEST_WORDS];
+
+    for (int length = 0; length < 200; length ++) {
+      byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+      md5.digest(bytes, 0, length, expected);
+
+      int[] midstate = Md5.initialState();
+      int processed = 0;
+      for (; processed + Md5.BLOCK_BYTES <= length; processed += Md5.BLOCK_BYTES) {
+        md5.compressBlock(midstate, bytes, processed);
+      }
+
+      md5.digest(midstate, processed, bytes, processed, length - processed, digest);
+
+      assertThat(digest).as("Length " + length).isEqualTo(expected);
+    }
+  }
+
+  private String hex(String input) {
+    int[] digest = new int[Md5.DIGEST_WORDS];
+    byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+    md5.digest(bytes, 0, bytes.length, digest);
+    return Md5.toHex(digest);
+  }
+}
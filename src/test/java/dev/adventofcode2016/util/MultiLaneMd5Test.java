@@ -0,0 +1,63 @@
+package dev.adventofcode2016.util;
+
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MultiLaneMd5Test {
+
+  @Test
+  public void matchesGuavaForAllBlockBoundaries() {
+    Random random = new Random(14);
+
+    for (int prefixLength : new int[]{0, 3, 8, 10, 64, 70, 72}) {
+      byte[] prefix = new byte[prefixLength];
+      random.nextBytes(prefix);
+      MultiLaneMd5 md5 = new MultiLaneMd5(prefix);
+
+      for (int length = 0; length < 140; length ++) {
+        int count = 1 + random.nextInt(2 * MultiLaneMd5.LANES); // Includes partially filled batches.
+        byte[] messages = new byte[count * length];
+        random.nextBytes(messages);
+        int[] digests = new int[count * Md5.DIGEST_WORDS];
+
+        md5.digest(messages, length, count, digests);
+
+        for (int i = 0; i < count; i ++) {
+          byte[] message = Bytes.concat(prefix, Arrays.copyOfRange(messages, i * length, (i + 1) * length));
+          int[] digest = Arrays.copyOfRange(digests, i * Md5.DIGEST_WORDS, (i + 1) * Md5.DIGEST_WORDS);
+
+          assertThat(Md5.toHex(digest)).as("Prefix " + prefixLength + ", length " + length + ", message " + i)
+              .isEqualTo(Hashing.md5().hashBytes(message).toString());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void stretchMatchesSingleLane() {
+    Random random = new Random(18);
+    int count = MultiLaneMd5.LANES + 3;
+    int[] digests = new int[count * Md5.DIGEST_WORDS];
+    for (int i = 0; i < digests.length; i ++) {
+      digests[i] = random.nextInt();
+    }
+
+    int[] expected = digests.clone();
+    Md5 md5 = new Md5();
+    for (int i = 0; i < count; i ++) {
+      int[] digest = Arrays.copyOfRange(expected, i * Md5.DIGEST_WORDS, (i + 1) * Md5.DIGEST_WORDS);
+      md5.stretch(digest, 100);
+      System.arraycopy(digest, 0, expected, i * Md5.DIGEST_WORDS, Md5.DIGEST_WORDS);
+    }
+
+    new MultiLaneMd5().stretch(digests, count, 100);
+
+    assertThat(digests).isEqualTo(expected);
+  }
+}